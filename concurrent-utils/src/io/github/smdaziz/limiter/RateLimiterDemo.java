@@ -0,0 +1,76 @@
+package io.github.smdaziz.limiter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Goal: Cap how fast submitters push work into a pool, without a lock or a refill thread.
+// 1) Bursty: four submitters share a 200/s limiter with a burst of 50, the first 50 tasks go through at once,
+//    the rest at 200/s however many threads push.
+// 2) tryAcquire: a submitter that drops work instead of waiting when over the rate.
+// 3) Warm-up: a cold limiter starts at a third of its rate and ramps up, the gaps between permits shrink.
+public class RateLimiterDemo {
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("Main thread started.");
+        bursty();
+        dropping();
+        warmingUp();
+        System.out.println("Main thread finished.");
+    }
+
+    private static void bursty() throws InterruptedException {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.create(200, 50);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        AtomicInteger executed = new AtomicInteger();
+        long start = System.nanoTime();
+        Thread[] submitters = new Thread[4];
+        for (int i = 0; i < submitters.length; i++) {
+            submitters[i] = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    limiter.acquire(1);
+                    pool.execute(executed::incrementAndGet);
+                }
+            }, "Submitter-" + (i + 1));
+            submitters[i].start();
+        }
+        for (Thread t : submitters) {
+            t.join();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+        // 400 tasks: 50 from the burst, 350 at 200/s, so about 1750 ms
+        System.out.println("Bursty: " + executed.get() + " tasks in " + elapsedMs + " ms (expected ~1750 ms)");
+    }
+
+    private static void dropping() throws InterruptedException {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.create(100, 10);
+        int accepted = 0;
+        int dropped = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        while (System.nanoTime() < deadline) {
+            if (limiter.tryAcquire(1)) {
+                accepted++;
+            } else {
+                dropped++;
+            }
+            Thread.sleep(1); // offering ~1000/s
+        }
+        // 10 from the burst plus ~50 over 500 ms
+        System.out.println("Dropping: accepted " + accepted + " (expected ~60), dropped " + dropped);
+    }
+
+    private static void warmingUp() {
+        TokenBucketRateLimiter limiter = TokenBucketRateLimiter.withWarmup(20, 1, TimeUnit.SECONDS);
+        StringBuilder gaps = new StringBuilder("Warm-up gaps (ms), stable 50:");
+        long previous = System.nanoTime();
+        for (int i = 0; i < 30; i++) {
+            limiter.acquire(1);
+            long now = System.nanoTime();
+            gaps.append(' ').append((now - previous) / 1_000_000);
+            previous = now;
+        }
+        System.out.println(gaps);
+    }
+}
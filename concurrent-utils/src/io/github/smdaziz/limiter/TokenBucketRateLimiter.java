@@ -0,0 +1,205 @@
+package io.github.smdaziz.limiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Token-bucket rate limiter whose whole state is one AtomicLong, updated by CAS: no lock, no refill thread.
+//   bits 63..44  stored tokens (up to 1,048,575, the burst capacity)
+//   bits 43..0   "next free" time since creation in ticks of 1/1024 of the stable interval, wrapping every
+//                2^34 intervals (~4.8 hours at 1,000,000/s, far longer at lower rates)
+// Measuring time in fractions of the interval keeps the stable cost of a permit exact: a microsecond clock
+// would truncate 1.67 us at 600,000/s down to 1 us and let 1,000,000/s through.
+// Reservations never book more than MAX_AHEAD_TICKS (plus one request) past now, so a next free time further
+// ahead than that is an idle gap that wrapped the clock, and is treated as a full bucket rather than as debt.
+// Refill is computed lazily from the elapsed time on every call. Like Guava's RateLimiter, a request that
+// needs more tokens than are stored still succeeds if the limiter is free right now, and pushes the next
+// free time into the future by the missing tokens: the next caller pays for it. acquire() parks until its
+// reserved time; tryAcquire() only succeeds if no wait is needed (or the wait fits in its timeout).
+// Optional warm-up (Guava's SmoothWarmingUp): after being idle the bucket is "cold", stored tokens above
+// half the warm-up cost up to 3x the stable interval each, so throughput ramps up over the warm-up period
+// instead of jumping to the full rate at once.
+public class TokenBucketRateLimiter {
+    private static final int TIME_BITS = 44;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    public static final int MAX_TOKENS = (1 << (64 - TIME_BITS)) - 1;
+    private static final double COLD_FACTOR = 3.0;
+    private static final int TICKS_PER_INTERVAL = 1024;
+    // Debt limit, a quarter of the clock; the most a single request can add on top of it
+    private static final long MAX_AHEAD_TICKS = 1L << (TIME_BITS - 2);
+    private static final long MAX_COST_TICKS = (long) (MAX_TOKENS * TICKS_PER_INTERVAL * COLD_FACTOR);
+
+    private final AtomicLong state;
+    private final long originNanos = System.nanoTime();
+    private final double permitsPerSecond;
+    private final double tickNanos;
+    private final int maxTokens;
+    // Time it takes an idle bucket to earn one stored token
+    private final double coolDownIntervalTicks;
+    // Warm-up only, otherwise stored tokens are free
+    private final double thresholdTokens;
+    private final double slope;
+
+    private TokenBucketRateLimiter(double permitsPerSecond, int maxTokens, double coolDownIntervalMicros,
+                                   double thresholdTokens, double slopeMicros) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.tickNanos = 1_000_000_000 / permitsPerSecond / TICKS_PER_INTERVAL;
+        this.maxTokens = maxTokens;
+        this.coolDownIntervalTicks = coolDownIntervalMicros * 1_000 / tickNanos;
+        this.thresholdTokens = thresholdTokens;
+        this.slope = slopeMicros * 1_000 / tickNanos;
+        this.state = new AtomicLong(pack(maxTokens, 0)); // starts full: a burst is available right away
+    }
+
+    // Sustained rate of permitsPerSecond, with up to burst tokens saved up while idle
+    public static TokenBucketRateLimiter create(double permitsPerSecond, int burst) {
+        checkRate(permitsPerSecond);
+        if (burst < 1 || burst > MAX_TOKENS) {
+            throw new IllegalArgumentException("burst must be in 1.." + MAX_TOKENS);
+        }
+        return new TokenBucketRateLimiter(permitsPerSecond, burst, 1_000_000 / permitsPerSecond, 0, 0);
+    }
+
+    // Sustained rate of permitsPerSecond, starting cold at a third of it and reaching it after warmupPeriod
+    public static TokenBucketRateLimiter withWarmup(double permitsPerSecond, long warmupPeriod, TimeUnit unit) {
+        checkRate(permitsPerSecond);
+        double stable = 1_000_000 / permitsPerSecond;
+        double cold = stable * COLD_FACTOR;
+        double warmupMicros = unit.toMicros(warmupPeriod);
+        double threshold = 0.5 * warmupMicros / stable;
+        double max = threshold + 2.0 * warmupMicros / (stable + cold);
+        if (max < 1 || max > MAX_TOKENS) {
+            throw new IllegalArgumentException("warm-up period gives " + (long) max + " tokens, must be 1.." + MAX_TOKENS);
+        }
+        return new TokenBucketRateLimiter(permitsPerSecond, (int) max, warmupMicros / max, threshold,
+                (cold - stable) / (max - threshold));
+    }
+
+    public boolean tryAcquire(int permits) {
+        return reserve(permits, 0) >= 0;
+    }
+
+    // Succeeds, after parking for at most the timeout, if the tokens can be had within it
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) {
+        long waitTicks = reserve(permits, (long) (Math.max(0, unit.toNanos(timeout)) / tickNanos));
+        if (waitTicks < 0) {
+            return false;
+        }
+        park(waitTicks);
+        return true;
+    }
+
+    // Parks until the tokens are available, returns the microseconds waited
+    public long acquire(int permits) {
+        long waitTicks;
+        while ((waitTicks = reserve(permits, Long.MAX_VALUE)) < 0) {
+            park(MAX_COST_TICKS); // debt limit reached, let some of it drain first
+        }
+        park(waitTicks);
+        return (long) (waitTicks * tickNanos / 1_000);
+    }
+
+    public double getRate() {
+        return permitsPerSecond;
+    }
+
+    // Stored tokens as of the last update, without refilling first
+    public int storedTokens() {
+        return (int) (state.get() >>> TIME_BITS);
+    }
+
+    // Reserves the tokens and returns how long the caller must wait for them, or -1 (reserving nothing)
+    // if that would be longer than maxWaitTicks or MAX_AHEAD_TICKS
+    private long reserve(int permits, long maxWaitTicks) {
+        if (permits < 1 || permits > MAX_TOKENS) {
+            throw new IllegalArgumentException("permits must be in 1.." + MAX_TOKENS);
+        }
+        while (true) {
+            long now = nowTicks();
+            long current = state.get();
+            long tokens = current >>> TIME_BITS;
+            long nextFree = current & TIME_MASK;
+            long ahead = difference(nextFree, now);
+            if (ahead > MAX_AHEAD_TICKS + MAX_COST_TICKS) {
+                // Never booked this far ahead: idle long enough for the clock to wrap
+                tokens = maxTokens;
+                nextFree = now;
+                ahead = 0;
+            }
+            if (ahead > Math.min(maxWaitTicks, MAX_AHEAD_TICKS)) {
+                return -1;
+            }
+            if (ahead < 0) {
+                // Idle since nextFree: earn tokens for the elapsed time, keeping the fraction of a token
+                // already earned by only moving nextFree forward by whole tokens
+                long earned = (long) (-ahead / coolDownIntervalTicks);
+                if (tokens + earned >= maxTokens) {
+                    tokens = maxTokens;
+                    nextFree = now;
+                } else {
+                    tokens += earned;
+                    nextFree += (long) (earned * coolDownIntervalTicks);
+                }
+            }
+            long fromStored = Math.min(permits, tokens);
+            long cost = storedTokensCost(tokens, fromStored) + (permits - fromStored) * TICKS_PER_INTERVAL;
+            long next = pack(tokens - fromStored, nextFree + cost);
+            if (state.compareAndSet(current, next)) {
+                return Math.max(0, ahead);
+            }
+        }
+    }
+
+    // Time charged for taking `taken` of the `stored` tokens: nothing without warm-up; with warm-up, the area
+    // under a price that rises linearly from the stable to the cold interval above thresholdTokens
+    private long storedTokensCost(long stored, long taken) {
+        if (slope == 0) {
+            return 0;
+        }
+        double aboveThreshold = stored - thresholdTokens;
+        double ticks = 0;
+        double remaining = taken;
+        if (aboveThreshold > 0) {
+            double takenAbove = Math.min(aboveThreshold, remaining);
+            double priceHigh = TICKS_PER_INTERVAL + aboveThreshold * slope;
+            double priceLow = TICKS_PER_INTERVAL + (aboveThreshold - takenAbove) * slope;
+            ticks = takenAbove * (priceHigh + priceLow) / 2;
+            remaining -= takenAbove;
+        }
+        return Math.round(ticks + remaining * TICKS_PER_INTERVAL);
+    }
+
+    private void park(long ticks) {
+        long deadline = System.nanoTime() + (long) (ticks * tickNanos);
+        boolean wasInterrupted = false;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                wasInterrupted = true; // keep waiting, preserve status
+            }
+        }
+        if (wasInterrupted) Thread.currentThread().interrupt();
+    }
+
+    private long nowTicks() {
+        return (long) ((System.nanoTime() - originNanos) / tickNanos) & TIME_MASK;
+    }
+
+    private static long pack(long tokens, long timeTicks) {
+        return (tokens << TIME_BITS) | (timeTicks & TIME_MASK);
+    }
+
+    // a - b for wrapping 44-bit timestamps, valid while they are less than 2^43 ticks apart. An idle gap of a
+    // multiple of the wrap period can alias to a small one and earn fewer tokens than it should; that only ever
+    // errs on the side of the rate.
+    private static long difference(long a, long b) {
+        return ((a - b) << (64 - TIME_BITS)) >> (64 - TIME_BITS);
+    }
+
+    private static void checkRate(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0 && permitsPerSecond <= 1_000_000)) {
+            throw new IllegalArgumentException("permitsPerSecond must be in (0, 1000000]");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.smdaziz.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// In-process registry of named metrics, replacing System.currentTimeMillis() printlns:
+// - counters are LongAdders, striped so that hot increments from many threads don't contend
+// - gauges are LongSuppliers, sampled only when exported
+// - histograms are log-linear (see Histogram), recording is lock-free and allocation-free
+// Lookups by name go through a ConcurrentHashMap; hot paths should look a metric up once and keep the reference.
+// export() renders everything as "name value" lines, sorted by name.
+public class MetricsRegistry {
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_.]*");
+
+    private final ConcurrentHashMap<String, Object> metrics = new ConcurrentHashMap<>();
+
+    public LongAdder counter(String name) {
+        return register(name, LongAdder.class, LongAdder::new);
+    }
+
+    public Histogram histogram(String name) {
+        return register(name, Histogram.class, Histogram::new);
+    }
+
+    public void gauge(String name, LongSupplier gauge) {
+        checkName(name);
+        Object existing = metrics.putIfAbsent(name, new Gauge(gauge));
+        if (existing != null) {
+            throw new IllegalArgumentException("Metric already registered: " + name);
+        }
+    }
+
+    public void remove(String name) {
+        metrics.remove(name);
+    }
+
+    // Pool gauges: threads, active threads, queued and completed tasks
+    public void registerThreadPool(String prefix, ThreadPoolExecutor pool) {
+        registerThreadPool(prefix, pool::getPoolSize, pool::getActiveCount, () -> pool.getQueue().size(),
+                pool::getCompletedTaskCount);
+    }
+
+    // Buffer gauges: how full a bounded queue is
+    public void registerQueue(String prefix, BlockingQueue<?> queue) {
+        registerQueue(prefix, queue::size, queue::remainingCapacity);
+    }
+
+    // Lock gauges: current holders and threads queued for the lock
+    public void registerLock(String prefix, ReentrantReadWriteLock lock) {
+        registerLock(prefix, lock::getReadLockCount, () -> lock.isWriteLocked() ? 1 : 0, lock::getQueueLength);
+    }
+
+    // The same gauges for pools, buffers and locks that aren't JDK types, such as the ThreadPool, BoundedBuffer and
+    // RWLock implementations in the other source roots (which this module can't depend on): pass their accessors,
+    // e.g. registerQueue("buffer", buffer::size, () -> capacity - buffer.size())
+    public void registerThreadPool(String prefix, LongSupplier poolSize, LongSupplier activeThreads,
+                                   LongSupplier queuedTasks, LongSupplier completedTasks) {
+        gauge(prefix + ".pool_size", poolSize);
+        gauge(prefix + ".active_threads", activeThreads);
+        gauge(prefix + ".queued_tasks", queuedTasks);
+        gauge(prefix + ".completed_tasks", completedTasks);
+    }
+
+    public void registerQueue(String prefix, LongSupplier size, LongSupplier remainingCapacity) {
+        gauge(prefix + ".size", size);
+        gauge(prefix + ".remaining_capacity", remainingCapacity);
+    }
+
+    public void registerLock(String prefix, LongSupplier readHolds, LongSupplier writeLocked, LongSupplier queuedThreads) {
+        gauge(prefix + ".read_holds", readHolds);
+        gauge(prefix + ".write_locked", writeLocked);
+        gauge(prefix + ".queued_threads", queuedThreads);
+    }
+
+    // Counters and gauges show their current value. Histograms show their cumulative count and sum, and
+    // percentiles over the interval since the previous export, so periodic exports show recent latency.
+    public String export() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Object> entry : new TreeMap<>(metrics).entrySet()) {
+            String name = entry.getKey();
+            Object metric = entry.getValue();
+            if (metric instanceof LongAdder) {
+                line(out, name, ((LongAdder) metric).sum());
+            } else if (metric instanceof Gauge) {
+                line(out, name, ((Gauge) metric).supplier.getAsLong());
+            } else {
+                Histogram histogram = (Histogram) metric;
+                Histogram.Snapshot total = histogram.snapshot();
+                Histogram.Snapshot interval = histogram.intervalSnapshot();
+                line(out, name + ".count", total.count());
+                line(out, name + ".sum", total.sum());
+                line(out, name + ".interval.count", interval.count());
+                line(out, name + ".interval.p50", interval.percentile(50));
+                line(out, name + ".interval.p99", interval.percentile(99));
+                line(out, name + ".interval.p999", interval.percentile(99.9));
+                line(out, name + ".interval.max", interval.max());
+            }
+        }
+        return out.toString();
+    }
+
+    private <T> T register(String name, Class<T> type, Supplier<T> factory) {
+        Object metric = metrics.get(name);
+        if (metric == null) {
+            checkName(name);
+            metric = metrics.computeIfAbsent(name, n -> factory.get());
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as another type");
+        }
+        return type.cast(metric);
+    }
+
+    private static void checkName(String name) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+    }
+
+    private static void line(StringBuilder out, String name, long value) {
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static final class Gauge {
+        final LongSupplier supplier;
+
+        Gauge(LongSupplier supplier) {
+            this.supplier = supplier;
+        }
+    }
+}
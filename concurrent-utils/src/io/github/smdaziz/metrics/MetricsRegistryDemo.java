@@ -0,0 +1,84 @@
+package io.github.smdaziz.metrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Goal: Observe a pool, its work queue and a lock through one registry instead of printlns.
+// Tasks read a shared value under a ReentrantReadWriteLock, occasionally write it, and record their run time;
+// the main thread exports the registry every 500 ms, showing queue depth, lock state and interval latency.
+public class MetricsRegistryDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        MetricsRegistry registry = new MetricsRegistry();
+        BlockingQueue<Runnable> workQueue = new ArrayBlockingQueue<>(100);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(3, 3, 0, TimeUnit.MILLISECONDS, workQueue);
+        ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        registry.registerThreadPool("pool", pool);
+        registry.registerQueue("pool.work_queue", workQueue);
+        registry.registerLock("config_lock", lock);
+        LongAdder submitted = registry.counter("tasks.submitted");
+        LongAdder rejected = registry.counter("tasks.rejected");
+        Histogram runTime = registry.histogram("tasks.run_time_ns");
+
+        long[] config = new long[1];
+        Thread submitter = new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                boolean isWrite = i % 10 == 0;
+                try {
+                    pool.execute(() -> {
+                        long start = System.nanoTime();
+                        if (isWrite) {
+                            lock.writeLock().lock();
+                            try {
+                                config[0]++;
+                                sleepMicros(500);
+                            } finally {
+                                lock.writeLock().unlock();
+                            }
+                        } else {
+                            lock.readLock().lock();
+                            try {
+                                sleepMicros(200);
+                            } finally {
+                                lock.readLock().unlock();
+                            }
+                        }
+                        runTime.record(System.nanoTime() - start);
+                    });
+                    submitted.increment();
+                } catch (RejectedExecutionException e) {
+                    rejected.increment();
+                }
+                sleepMicros(500);
+            }
+        }, "Submitter");
+        submitter.start();
+        try {
+            while (submitter.isAlive()) {
+                submitter.join(500);
+                System.out.println("--- export ---");
+                System.out.print(registry.export());
+            }
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("--- final export ---");
+        System.out.print(registry.export());
+        System.out.println("Main thread finished.");
+    }
+
+    private static void sleepMicros(long micros) {
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.smdaziz;
+
+class ArmstrongFinderLatch {
+    private int count = 0;
+
+    public ArmstrongFinderLatch(int count) {
+        this.count = count;
+    }
+
+    public synchronized void waitUntilAllThreadsFinished() {
+        while(count > 0) {
+            try {
+                this.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public synchronized void decrement() {
+        count--;
+        if (count == 0) {
+            this.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.smdaziz;
+
+class BoundedBuffer {
+    private final Object[] buffer;
+    private int putIndex = 0;
+    private int getIndex = 0;
+    private int currentCount = 0;
+
+    public BoundedBuffer(int capacity) {
+        buffer = new Object[capacity];
+    }
+
+    public synchronized void put(Object item) {
+        while(isFull()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        buffer[putIndex] = item;
+        putIndex = (putIndex + 1) % buffer.length;
+        currentCount++;
+        notifyAll();
+    }
+
+    public synchronized Object get() {
+        while(isEmpty()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Object item = buffer[getIndex];
+        buffer[getIndex] = null; // Empty the slot after consuming
+        getIndex = (getIndex + 1) % buffer.length;
+        currentCount--;
+        notifyAll();
+        return item;
+    }
+
+    // Non-blocking variant of get(): returns null instead of waiting when the buffer is empty.
+    // Lets callers that must never park (e.g. a publisher draining on an executor) share the same buffer.
+    public synchronized Object tryGet() {
+        if (isEmpty()) {
+            return null;
+        }
+        Object item = buffer[getIndex];
+        buffer[getIndex] = null;
+        getIndex = (getIndex + 1) % buffer.length;
+        currentCount--;
+        notifyAll(); // wake producers blocked in put()
+        return item;
+    }
+
+    public synchronized int size() {
+        return currentCount;
+    }
+
+    public boolean isEmpty() {
+        return currentCount == 0;
+    }
+
+    public boolean isFull() {
+        return currentCount == buffer.length;
+    }
+}
@@ -0,0 +1,299 @@
+package io.github.smdaziz;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+// Goal: Chain producer -> transform -> consumer stages without paying a BoundedBuffer handoff per stage.
+// Every stage declares its parallelism. Adjacent stages with the same parallelism are fused into one thread
+// (no queue hop between them), stages added with mapUnfused() always get their own threads and buffer.
+// An unfused stage is not a single-threaded one: it runs on as many threads as it declares, and a stage
+// that keeps state must make that state thread-safe or declare a parallelism of 1.
+public class BoundedBufferPipelineDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        LongAdder armstrongNumbers = new LongAdder();
+        PipelineExecution execution = Pipeline
+                .source("numbers", IntStream.rangeClosed(100, 2_000_000).iterator())
+                .filter("skip-round", 1, n -> n % 10 != 0)              // fused into the source thread
+                .mapUnfused("armstrong", 4, n -> isArmstrong(n) ? n : null)  // own buffer + 4 threads
+                .map("format", 4, n -> "[" + n + "]")                    // fused into the armstrong threads
+                .sink("collect", 2, s -> armstrongNumbers.increment(), 256);
+        System.out.println(execution.describe());
+        execution.start();
+        execution.awaitCompletion();
+        for (StageStats stats : execution.stats()) {
+            System.out.println(stats);
+        }
+        System.out.println("Armstrong numbers found: " + armstrongNumbers.sum());
+        System.out.println("Main thread finished.");
+    }
+
+    private static boolean isArmstrong(int number) {
+        int originalNumber = number;
+        int sum = 0;
+        int digits = String.valueOf(number).length();
+        while (number != 0) {
+            int digit = number % 10;
+            sum += Math.pow(digit, digits);
+            number /= 10;
+        }
+        return sum == originalNumber;
+    }
+}
+
+// Describes the chain while it is being built. Each call returns a view typed with the stage's output,
+// all views share the same stage list. Functions returning null drop the item (that is how filter works).
+class Pipeline<T> {
+    private final Iterator<?> source;
+    private final List<StageSpec> stages;
+
+    private Pipeline(Iterator<?> source, List<StageSpec> stages) {
+        this.source = source;
+        this.stages = stages;
+    }
+
+    public static <T> Pipeline<T> source(String name, Iterator<? extends T> source) {
+        List<StageSpec> stages = new ArrayList<>();
+        stages.add(new StageSpec(name, 1, true, Function.identity()));
+        return new Pipeline<>(source, stages);
+    }
+
+    public <R> Pipeline<R> map(String name, int parallelism, Function<? super T, ? extends R> function) {
+        return then(new StageSpec(name, parallelism, true, function));
+    }
+
+    public Pipeline<T> filter(String name, int parallelism, Predicate<? super T> predicate) {
+        return then(new StageSpec(name, parallelism, true, (T item) -> predicate.test(item) ? item : null));
+    }
+
+    // A stage that must not be fused, e.g. because it is much slower than its neighbours
+    public <R> Pipeline<R> mapUnfused(String name, int parallelism, Function<? super T, ? extends R> function) {
+        return then(new StageSpec(name, parallelism, false, function));
+    }
+
+    public PipelineExecution sink(String name, int parallelism, Consumer<? super T> consumer, int bufferCapacity) {
+        then(new StageSpec(name, parallelism, true, (T item) -> {
+            consumer.accept(item);
+            return item; // counted as out, then dropped: the last segment has no output buffer
+        }));
+        return new PipelineExecution(source, stages, bufferCapacity);
+    }
+
+    private <R> Pipeline<R> then(StageSpec stage) {
+        if (stage.parallelism < 1) {
+            throw new IllegalArgumentException("Stage " + stage.name + " needs parallelism >= 1");
+        }
+        stages.add(stage);
+        return new Pipeline<>(source, stages);
+    }
+}
+
+class StageSpec {
+    final String name;
+    final int parallelism;
+    final boolean fusable;
+    final Function<Object, Object> function;
+    final LongAdder in = new LongAdder();
+    final LongAdder out = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    <I, O> StageSpec(String name, int parallelism, boolean fusable, Function<? super I, ? extends O> function) {
+        this.name = name;
+        this.parallelism = parallelism;
+        this.fusable = fusable;
+        this.function = (Function<Object, Object>) function;
+    }
+}
+
+// Runs the stages as fused segments connected by BoundedBuffers.
+class PipelineExecution {
+    // End-of-stream marker, travels through the buffers after the last item
+    private static final Object END = new Object();
+
+    private final Iterator<?> source;
+    private final List<Segment> segments = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean started;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    PipelineExecution(Iterator<?> source, List<StageSpec> stages, int bufferCapacity) {
+        this.source = source;
+        // Fusion: a stage joins the previous segment if it is fusable and runs with the same parallelism
+        Segment current = null;
+        for (StageSpec stage : stages) {
+            if (current == null || !stage.fusable || stage.parallelism != current.parallelism) {
+                BoundedBuffer input = current == null ? null : new BoundedBuffer(bufferCapacity);
+                if (current != null) {
+                    current.output = input;
+                }
+                current = new Segment(segments.size(), stage.parallelism, input);
+                segments.add(current);
+            }
+            current.stages.add(stage);
+        }
+    }
+
+    public String describe() {
+        StringBuilder sb = new StringBuilder("Pipeline plan:");
+        for (Segment segment : segments) {
+            sb.append("\n  segment-").append(segment.index).append(" x").append(segment.parallelism).append(" threads: ");
+            for (int i = 0; i < segment.stages.size(); i++) {
+                sb.append(i == 0 ? "" : " + ").append(segment.stages.get(i).name);
+            }
+        }
+        return sb.toString();
+    }
+
+    public void start() {
+        if (started) {
+            throw new IllegalStateException("Pipeline already started");
+        }
+        startNanos = System.nanoTime();
+        started = true;
+        for (Segment segment : segments) {
+            for (int i = 1; i <= segment.parallelism; i++) {
+                Thread thread = new Thread(segment::work, "Pipeline-" + segment.stages.get(0).name + "-" + i);
+                threads.add(thread);
+                thread.start();
+            }
+        }
+    }
+
+    public void awaitCompletion() {
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        endNanos = System.nanoTime();
+    }
+
+    // Per-stage counters plus the depth of the buffer feeding the stage's segment (0 for fused stages).
+    // Throughput stays 0 until start() has been called.
+    public List<StageStats> stats() {
+        double seconds = Double.POSITIVE_INFINITY;
+        if (started) {
+            long end = endNanos != 0 ? endNanos : System.nanoTime();
+            seconds = Math.max(1, end - startNanos) / 1_000_000_000.0;
+        }
+        List<StageStats> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            for (int i = 0; i < segment.stages.size(); i++) {
+                StageSpec stage = segment.stages.get(i);
+                int queueDepth = (i == 0 && segment.input != null) ? segment.input.size() : 0;
+                result.add(new StageStats(stage.name, segment.index, stage.parallelism, stage.in.sum(),
+                        stage.out.sum(), stage.errors.sum(), stage.in.sum() / seconds, queueDepth));
+            }
+        }
+        return result;
+    }
+
+    private class Segment {
+        final int index;
+        final int parallelism;
+        final BoundedBuffer input;
+        BoundedBuffer output;
+        final List<StageSpec> stages = new ArrayList<>();
+        final AtomicInteger running;
+
+        Segment(int index, int parallelism, BoundedBuffer input) {
+            this.index = index;
+            this.parallelism = parallelism;
+            this.input = input;
+            this.running = new AtomicInteger(parallelism);
+        }
+
+        void work() {
+            try {
+                if (input == null) {
+                    // Source segment, always a single thread so the iterator needs no synchronization
+                    while (source.hasNext()) {
+                        push(source.next());
+                    }
+                    return;
+                }
+                while (true) {
+                    Object item = input.get();
+                    if (item == END) {
+                        input.put(END); // leave it for the sibling workers of this segment
+                        return;
+                    }
+                    push(item);
+                }
+            } finally {
+                // The last worker of a segment forwards end-of-stream once all its items are out
+                if (running.decrementAndGet() == 0) {
+                    if (input != null) {
+                        input.tryGet(); // the END left behind for siblings, nobody else is reading anymore
+                    }
+                    if (output != null) {
+                        output.put(END);
+                    }
+                }
+            }
+        }
+
+        // Runs the item through every fused stage on the calling thread, no handoff in between
+        private void push(Object item) {
+            for (StageSpec stage : stages) {
+                stage.in.increment();
+                try {
+                    item = stage.function.apply(item);
+                } catch (RuntimeException e) {
+                    // Drop the item but keep draining, a dead worker would block the upstream buffer forever
+                    stage.errors.increment();
+                    e.printStackTrace();
+                    return;
+                }
+                if (item == null) {
+                    return;
+                }
+                stage.out.increment();
+            }
+            if (output != null) {
+                output.put(item);
+            }
+        }
+    }
+}
+
+class StageStats {
+    final String name;
+    final int segment;
+    final int parallelism;
+    final long itemsIn;
+    final long itemsOut;
+    final long errors;
+    final double throughputPerSecond;
+    final int queueDepth;
+
+    StageStats(String name, int segment, int parallelism, long itemsIn, long itemsOut, long errors,
+               double throughputPerSecond, int queueDepth) {
+        this.name = name;
+        this.segment = segment;
+        this.parallelism = parallelism;
+        this.itemsIn = itemsIn;
+        this.itemsOut = itemsOut;
+        this.errors = errors;
+        this.throughputPerSecond = throughputPerSecond;
+        this.queueDepth = queueDepth;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-12s segment-%d x%d in=%d out=%d errors=%d throughput=%.0f/s queueDepth=%d",
+                name, segment, parallelism, itemsIn, itemsOut, errors, throughputPerSecond, queueDepth);
+    }
+}
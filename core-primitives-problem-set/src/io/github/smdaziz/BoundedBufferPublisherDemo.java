@@ -0,0 +1,299 @@
+package io.github.smdaziz;
+
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Goal: Same M producers & K consumers as Problem7, but consumers are Flow.Subscribers instead of threads.
+// Subscribers signal demand with request(n) and items are pushed to them from an executor,
+// so no consumer ever parks inside BoundedBuffer.get(). Thousands of logical consumers share a handful of threads.
+public class BoundedBufferPublisherDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        int numProducers = 3;
+        int itemsPerProducer = 20_000;
+        int numSubscribers = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        BoundedBufferPublisher<Integer> publisher = new BoundedBufferPublisher<>(new BoundedBuffer(64), executor);
+        CountDownLatch completed = new CountDownLatch(numSubscribers);
+        CountingSubscriber[] subscribers = new CountingSubscriber[numSubscribers];
+        for (int i = 0; i < numSubscribers; i++) {
+            subscribers[i] = new CountingSubscriber(8, completed);
+            publisher.subscribe(subscribers[i]);
+        }
+        Thread[] producerThreads = new Thread[numProducers];
+        for (int i = 0; i < numProducers; i++) {
+            producerThreads[i] = new Thread(() -> {
+                for (int j = 1; j <= itemsPerProducer; j++) {
+                    publisher.submit(j); // blocks only when the buffer is full and no subscriber has demand
+                }
+            }, "Producer-" + (i + 1));
+            producerThreads[i].start();
+        }
+        try {
+            for (Thread t : producerThreads) {
+                t.join();
+            }
+            publisher.close();
+            completed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long total = 0;
+        for (CountingSubscriber subscriber : subscribers) {
+            total += subscriber.getReceived();
+        }
+        System.out.println(numSubscribers + " subscribers received " + total + " of "
+                + (numProducers * itemsPerProducer) + " items on 2 executor threads");
+        executor.shutdown();
+        System.out.println("Main thread finished.");
+    }
+}
+
+// Adapts the Problem7 BoundedBuffer into a Flow.Publisher with work-sharing semantics:
+// every submitted item is delivered to exactly one subscriber that has outstanding demand.
+// Delivery happens in a single drain loop that is scheduled on the executor only when there is
+// something to do (new item, new demand, cancel or close), so idle subscribers cost no thread at all.
+class BoundedBufferPublisher<T> implements Flow.Publisher<T> {
+    // Max items handed to one subscriber before moving on to the next, keeps delivery fair across subscribers
+    private static final int DRAIN_BATCH = 16;
+
+    private final BoundedBuffer buffer;
+    private final Executor executor;
+    private final CopyOnWriteArrayList<BufferSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Work-in-progress counter: only the caller that moves it from 0 schedules a drain,
+    // everybody else just bumps it so the running drain loops once more (no missed signals)
+    private final AtomicInteger wip = new AtomicInteger();
+    // submit() calls between their closed check and their put(): the drain loop only completes once none are left
+    private final AtomicInteger submitsInFlight = new AtomicInteger();
+    private volatile boolean closed = false;
+    private boolean completed = false; // only touched by the drain loop
+    private int nextSubscription = 0; // round-robin start, only touched by the drain loop
+
+    public BoundedBufferPublisher(BoundedBuffer buffer, Executor executor) {
+        this.buffer = buffer;
+        this.executor = executor;
+    }
+
+    // Producer side: blocks like BoundedBuffer.put() when full, which is the backpressure towards producers.
+    // Rejected once close() has been called: the in-flight count is raised before closed is read, and the drain
+    // loop reads closed before the count, so either this submit sees closed or the drain loop waits for its item.
+    public void submit(T item) {
+        Objects.requireNonNull(item, "item"); // null is what tryGet() uses for "empty"
+        submitsInFlight.incrementAndGet();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Publisher is closed");
+            }
+            buffer.put(item);
+        } finally {
+            submitsInFlight.decrementAndGet();
+            drain();
+        }
+    }
+
+    // No more items will be submitted, subscribers complete once the buffer is drained
+    public void close() {
+        closed = true;
+        drain();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        BufferSubscription subscription = new BufferSubscription(subscriber);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        drain(); // may already be closed, in which case the drain loop completes it
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(this::drainLoop);
+        }
+    }
+
+    private void drainLoop() {
+        int missed = 1;
+        do {
+            boolean progress = true;
+            while (progress) {
+                progress = false;
+                // Snapshot: cancels shrink the list concurrently, they are seen on the next pass
+                Object[] snapshot = subscriptions.toArray();
+                int size = snapshot.length;
+                for (int i = 0; i < size; i++) {
+                    if (subscriptionAt(snapshot, (nextSubscription + i) % size).emit()) {
+                        progress = true;
+                    }
+                }
+                nextSubscription = size == 0 ? 0 : (nextSubscription + 1) % size;
+            }
+            // Read closed before the in-flight submits, see submit()
+            boolean done = closed;
+            if (done && !completed && submitsInFlight.get() == 0 && buffer.size() == 0) {
+                completed = true;
+            }
+            if (completed) {
+                for (BufferSubscription subscription : subscriptions) {
+                    subscription.complete();
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private BufferSubscription subscriptionAt(Object[] snapshot, int index) {
+        return (BufferSubscription) snapshot[index];
+    }
+
+    private class BufferSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private volatile boolean cancelled = false;
+        // Set by an invalid request(), signalled by the drain loop so onError never overlaps an onNext (§1.3)
+        private volatile Throwable error;
+
+        BufferSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (error == null) {
+                    error = new IllegalArgumentException("request(" + n + "): demand must be positive (§3.9)");
+                }
+                drain();
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = demand.get();
+                if (current == Long.MAX_VALUE) {
+                    return; // unbounded already
+                }
+                next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE; // overflow means unbounded
+                }
+            } while (!demand.compareAndSet(current, next));
+            // Only the 0 -> n transition can unblock delivery, further requests are picked up by the running loop
+            if (current == 0) {
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                subscriptions.remove(this);
+            }
+        }
+
+        // Pushes up to DRAIN_BATCH items, returns true if at least one item was delivered
+        @SuppressWarnings("unchecked")
+        boolean emit() {
+            if (error != null) {
+                fail(error);
+                return false;
+            }
+            long requested = demand.get();
+            if (cancelled || requested == 0) {
+                return false;
+            }
+            long emitted = 0;
+            while (emitted < requested && emitted < DRAIN_BATCH && !cancelled) {
+                Object item = buffer.tryGet();
+                if (item == null) {
+                    break;
+                }
+                emitted++;
+                try {
+                    subscriber.onNext((T) item);
+                } catch (Throwable t) {
+                    fail(t);
+                    break;
+                }
+            }
+            if (emitted > 0 && requested != Long.MAX_VALUE) {
+                demand.addAndGet(-emitted);
+            }
+            return emitted > 0;
+        }
+
+        // Drain loop only, like every other signal
+        void complete() {
+            if (error != null) {
+                fail(error);
+            } else if (!cancelled) {
+                cancelled = true;
+                subscriptions.remove(this);
+                subscriber.onComplete();
+            }
+        }
+
+        private void fail(Throwable t) {
+            if (!cancelled) {
+                cancel();
+                subscriber.onError(t);
+            }
+        }
+    }
+}
+
+// Requests in batches and re-requests once half of the batch is consumed, so the publisher sees
+// one request() per batchSize / 2 items instead of one per item
+class CountingSubscriber implements Flow.Subscriber<Integer> {
+    private final int batchSize;
+    private final CountDownLatch completed;
+    private Flow.Subscription subscription;
+    private int outstanding;
+    private long received;
+
+    public CountingSubscriber(int batchSize, CountDownLatch completed) {
+        this.batchSize = batchSize;
+        this.completed = completed;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        outstanding = batchSize;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(Integer item) {
+        received++;
+        if (--outstanding <= batchSize / 2) {
+            subscription.request(batchSize - outstanding);
+            outstanding = batchSize;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        throwable.printStackTrace();
+        completed.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+        completed.countDown();
+    }
+
+    // Safe to read after onComplete() has been observed through the latch
+    public long getReceived() {
+        return received;
+    }
+}
@@ -0,0 +1,393 @@
+package io.github.smdaziz;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Goal: Keep a bounded hot set of a slow config source in memory.
+// CachingConfigStore is a read-through cache with W-TinyLFU eviction: new entries land in a small LRU window,
+// and leaving the window they must beat the main region's victim on estimated frequency (count-min sketch)
+// to get in. The main region is a segmented LRU, entries expire a fixed time after they were loaded,
+// and concurrent misses for one key share a single load.
+public class CachingConfigStoreDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        ConfigStore source = new ConfigStore(new RWWriterPreferredLock());
+        int numKeys = 10_000;
+        for (int i = 1; i <= numKeys; i++) {
+            source.add("Key-" + i, "Value-" + i);
+        }
+        AtomicInteger sourceReads = new AtomicInteger();
+        CachingConfigStore cache = new CachingConfigStore(500, 5, TimeUnit.SECONDS, key -> {
+            sourceReads.incrementAndGet();
+            simulateSlowSource();
+            return source.get(key);
+        });
+
+        // Single-flight: eight threads miss the same key at the same moment, the source is read once
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> cache.get("Key-42"), "Reader-" + (i + 1));
+            threads[i].start();
+        }
+        join(threads);
+        System.out.println("8 concurrent misses on Key-42 -> source reads: " + sourceReads.get());
+
+        // Skewed workload: a few keys are hot, most are rarely read
+        for (int i = 0; i < threads.length; i++) {
+            final int seed = i;
+            threads[i] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int j = 0; j < 50_000; j++) {
+                    int rank = (int) Math.min(numKeys, Math.pow(numKeys, random.nextDouble())); // ~Zipf
+                    cache.get("Key-" + rank);
+                }
+            }, "Reader-" + (i + 1));
+            threads[i].start();
+        }
+        join(threads);
+        System.out.println(cache.stats());
+        System.out.println("Main thread finished.");
+    }
+
+    private static void simulateSlowSource() {
+        long end = System.nanoTime() + 50_000;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void join(Thread[] threads) {
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
+
+// All policy state (regions, sketch) is guarded by one monitor, held only for O(1) bookkeeping.
+// Loads run outside it, and only one thread per key runs the loader, the others wait for its result.
+class CachingConfigStore {
+    private enum Region { WINDOW, PROBATION, PROTECTED }
+
+    private final Function<String, String> loader;
+    private final long ttlNanos;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+    private final Object policyMonitor = new Object();
+    private final Map<String, CacheEntry> index = new HashMap<>();
+    // Insertion-ordered, the first entry is the LRU one; touching an entry re-inserts it at the end
+    private final LinkedHashMap<String, CacheEntry> window = new LinkedHashMap<>();
+    private final LinkedHashMap<String, CacheEntry> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<String, CacheEntry> protectedRegion = new LinkedHashMap<>();
+    private final FrequencySketch sketch;
+    private final ConcurrentHashMap<String, FutureTask<String>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public CachingConfigStore(int maximumSize, long ttl, TimeUnit unit, Function<String, String> loader) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("maximumSize must be >= 2");
+        }
+        this.loader = loader;
+        this.ttlNanos = unit.toNanos(ttl);
+        // W-TinyLFU defaults: 1% window, main region split 80% protected / 20% probation
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.mainCapacity = maximumSize - windowCapacity;
+        this.protectedCapacity = (int) (mainCapacity * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    public String get(String key) {
+        synchronized (policyMonitor) {
+            sketch.increment(key); // every access counts, hit or miss, that's what admission compares
+            CacheEntry entry = index.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    onHit(entry);
+                    hits.increment();
+                    return entry.value;
+                }
+                remove(entry);
+                expirations.increment();
+            }
+            misses.increment();
+        }
+        return load(key);
+    }
+
+    public void invalidate(String key) {
+        synchronized (policyMonitor) {
+            CacheEntry entry = index.get(key);
+            if (entry != null) {
+                remove(entry);
+            }
+        }
+    }
+
+    // Drops every expired entry now instead of when it is next looked up or evicted
+    public void cleanUp() {
+        synchronized (policyMonitor) {
+            long now = System.nanoTime();
+            for (Iterator<CacheEntry> it = index.values().iterator(); it.hasNext(); ) {
+                CacheEntry entry = it.next();
+                if (now - entry.loadedAt >= ttlNanos) {
+                    it.remove();
+                    regionOf(entry).remove(entry.key);
+                    expirations.increment();
+                }
+            }
+        }
+    }
+
+    public CacheStats stats() {
+        int size;
+        synchronized (policyMonitor) {
+            size = index.size();
+        }
+        return new CacheStats(size, hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(),
+                evictions.sum(), expirations.sum());
+    }
+
+    // Single-flight: the first thread to miss runs the loader, later ones wait on the same FutureTask.
+    // The value is cached before the task leaves inFlight, so a new miss either finds it or joins the task.
+    private String load(String key) {
+        FutureTask<String> task = new FutureTask<>(() -> loader.apply(key));
+        FutureTask<String> running = inFlight.putIfAbsent(key, task);
+        if (running == null) {
+            running = task;
+            try {
+                task.run();
+                String value = awaitLoad(task);
+                loads.increment();
+                if (value != null) {
+                    insert(key, value);
+                }
+            } catch (RuntimeException e) {
+                loadFailures.increment();
+                throw e;
+            } finally {
+                inFlight.remove(key, task);
+            }
+        }
+        return awaitLoad(running);
+    }
+
+    private String awaitLoad(FutureTask<String> task) {
+        boolean wasInterrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    wasInterrupted = true; // keep waiting, preserve status
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (wasInterrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private void insert(String key, String value) {
+        synchronized (policyMonitor) {
+            CacheEntry existing = index.get(key);
+            if (existing != null) {
+                existing.value = value;
+                existing.loadedAt = System.nanoTime();
+                return;
+            }
+            CacheEntry entry = new CacheEntry(key, value, System.nanoTime());
+            index.put(key, entry);
+            window.put(key, entry);
+            if (window.size() > windowCapacity) {
+                admit(removeFirst(window));
+            }
+        }
+    }
+
+    // TinyLFU admission: the window's LRU candidate enters the main region only if it is estimated to be
+    // accessed more often than the entry it would push out
+    private void admit(CacheEntry candidate) {
+        if (probation.size() + protectedRegion.size() < mainCapacity) {
+            addLast(probation, candidate, Region.PROBATION);
+            return;
+        }
+        LinkedHashMap<String, CacheEntry> victimRegion = probation.isEmpty() ? protectedRegion : probation;
+        CacheEntry victim = victimRegion.values().iterator().next();
+        if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            victimRegion.remove(victim.key);
+            index.remove(victim.key);
+            addLast(probation, candidate, Region.PROBATION);
+        } else {
+            index.remove(candidate.key);
+        }
+        evictions.increment();
+    }
+
+    // Segmented LRU: a second hit promotes from probation to protected, protected overflow is demoted back
+    private void onHit(CacheEntry entry) {
+        LinkedHashMap<String, CacheEntry> region = regionOf(entry);
+        region.remove(entry.key);
+        if (entry.region == Region.PROBATION) {
+            addLast(protectedRegion, entry, Region.PROTECTED);
+            if (protectedRegion.size() > protectedCapacity) {
+                addLast(probation, removeFirst(protectedRegion), Region.PROBATION);
+            }
+        } else {
+            region.put(entry.key, entry);
+        }
+    }
+
+    private void remove(CacheEntry entry) {
+        index.remove(entry.key);
+        regionOf(entry).remove(entry.key);
+    }
+
+    private LinkedHashMap<String, CacheEntry> regionOf(CacheEntry entry) {
+        switch (entry.region) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            default:
+                return protectedRegion;
+        }
+    }
+
+    private static void addLast(LinkedHashMap<String, CacheEntry> region, CacheEntry entry, Region name) {
+        entry.region = name;
+        region.put(entry.key, entry);
+    }
+
+    private static CacheEntry removeFirst(LinkedHashMap<String, CacheEntry> region) {
+        Iterator<CacheEntry> it = region.values().iterator();
+        CacheEntry first = it.next();
+        it.remove();
+        return first;
+    }
+
+    private static class CacheEntry {
+        final String key;
+        String value;
+        long loadedAt;
+        Region region = Region.WINDOW;
+
+        CacheEntry(String key, String value, long loadedAt) {
+            this.key = key;
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
+
+// Count-min sketch with 4-bit counters, sixteen per long, four hash functions over one table.
+// After 10 x maximumSize increments every counter is halved, so old popularity fades out (aging).
+// Not thread-safe, CachingConfigStore only touches it under its policy monitor.
+class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions = 0;
+
+    FrequencySketch(int maximumSize) {
+        int length = Integer.highestOneBit(Math.max(16, maximumSize - 1) << 1);
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * maximumSize;
+    }
+
+    int frequency(Object element) {
+        int hash = element.hashCode();
+        int frequency = 15;
+        for (int i = 0; i < 4; i++) {
+            long h = rehash(hash, i);
+            int index = (int) (h >>> 32) & tableMask;
+            int shift = (int) (h & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 15));
+        }
+        return frequency;
+    }
+
+    void increment(Object element) {
+        int hash = element.hashCode();
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            long h = rehash(hash, i);
+            int index = (int) (h >>> 32) & tableMask;
+            int shift = (int) (h & 15) << 2;
+            if (((table[index] >>> shift) & 15) < 15) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private static long rehash(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h ^ (h >>> 29);
+    }
+}
+
+class CacheStats {
+    final int size;
+    final long hits;
+    final long misses;
+    final long loads;
+    final long loadFailures;
+    final long evictions;
+    final long expirations;
+
+    CacheStats(int size, long hits, long misses, long loads, long loadFailures, long evictions, long expirations) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.loadFailures = loadFailures;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d hits=%d misses=%d hitRate=%.1f%% loads=%d loadFailures=%d evictions=%d expirations=%d",
+                size, hits, misses, hitRate() * 100, loads, loadFailures, evictions, expirations);
+    }
+}
@@ -0,0 +1,296 @@
+package io.github.smdaziz;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+class ConfigStore {
+    private static final long NO_TIMEOUT = -1;
+
+    private final Map<String, String> data;
+    // Global version at which each key was last written, so per-key versions only ever increase
+    private final Map<String, Long> versions;
+    private final RWLock lock;
+    private long globalVersion = 0; // guarded by the write lock
+    // Watchers wait on their key's KeyWatchers instead of polling get(), so a write only wakes the watchers of
+    // the keys it wrote. Writers check the watcher count first and touch no monitor when nobody is watching.
+    private final ConcurrentHashMap<String, KeyWatchers> keyWatchers = new ConcurrentHashMap<>();
+    private final AtomicInteger watchers = new AtomicInteger();
+
+    public ConfigStore(RWLock lock) {
+        this.data = new HashMap<>();
+        this.versions = new HashMap<>();
+        this.lock = lock;
+    }
+
+    public void add(String key, String value) {
+        lock.beginWrite();
+        try {
+            put(key, value);
+        } finally {
+            lock.endWrite();
+        }
+        notifyWatchers(key);
+    }
+
+    // Always under the read lock: an optimistic HashMap.get() racing a put() is not just a stale read, a lookup
+    // in a bin being treeified or resized can loop forever before validate() ever gets a say
+    public String get(String key) {
+        lock.beginRead();
+        try {
+            return data.get(key);
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    // One write lock acquisition and one watcher notification for the whole batch
+    public void putAll(Map<String, String> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        lock.beginWrite();
+        try {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            lock.endWrite();
+        }
+        if (watchers.get() > 0) {
+            for (String key : entries.keySet()) {
+                notifyWatchers(key);
+            }
+        }
+    }
+
+    // Reads every key under one read lock, so all values come from the same state of the store. values[i]
+    // receives the value of keys[i] (null if absent), nothing is allocated. Returns how many of the keys were
+    // present.
+    public int getAll(String[] keys, String[] values) {
+        if (values.length < keys.length) {
+            throw new IllegalArgumentException("values has room for " + values.length + " of " + keys.length + " keys");
+        }
+        lock.beginRead();
+        try {
+            return readAll(keys, values);
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    // Copies the present keys into the caller's map under one read lock
+    public int getAll(Collection<String> keys, Map<String, String> values) {
+        int found = 0;
+        lock.beginRead();
+        try {
+            for (String key : keys) {
+                String value = data.get(key);
+                if (value != null) {
+                    values.put(key, value);
+                    found++;
+                }
+            }
+        } finally {
+            lock.endRead();
+        }
+        return found;
+    }
+
+    // Most calls find the key already present, so they only ever take the read path.
+    // A miss holds the upgradeable read lock while computing: plain readers keep going,
+    // and upgrade() guarantees no other writer sneaks in between the check and the put.
+    public String computeIfAbsent(String key, Function<String, String> mappingFunction) {
+        String existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        lock.beginUpgradeableRead();
+        boolean upgraded = false;
+        String value;
+        try {
+            value = data.get(key);
+            if (value == null) {
+                value = mappingFunction.apply(key);
+                if (value != null) {
+                    lock.upgrade();
+                    upgraded = true;
+                    put(key, value);
+                }
+            }
+        } finally {
+            if (upgraded) {
+                lock.endWrite();
+            } else {
+                lock.endUpgradeableRead();
+            }
+        }
+        if (upgraded) {
+            notifyWatchers(key);
+        }
+        return value;
+    }
+
+    // Global version, bumped by every write
+    public long version() {
+        lock.beginRead();
+        try {
+            return globalVersion;
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    // Version at which key was last written, 0 if it was never written
+    public long version(String key) {
+        lock.beginRead();
+        try {
+            return versions.getOrDefault(key, 0L);
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    // Blocks until key has a version newer than sinceVersion and returns that value, no polling involved.
+    // Pass 0 to wait for the first write, or the version of the last VersionedValue seen to wait for the next one.
+    public VersionedValue watch(String key, long sinceVersion) throws InterruptedException {
+        return watch(key, sinceVersion, NO_TIMEOUT);
+    }
+
+    // Same as watch(key, sinceVersion) but gives up after timeout and returns null.
+    // Like the JDK's timed waits, a timeout <= 0 doesn't wait: it only checks the current version.
+    public VersionedValue watch(String key, long sinceVersion, long timeout, TimeUnit unit) throws InterruptedException {
+        return watch(key, sinceVersion, Math.max(0, unit.toNanos(timeout)));
+    }
+
+    // The watcher registers (count, then its key's wait set) before reading the version under the read lock,
+    // and a writer reads the count and the wait set after its write. So if the read missed the write, the
+    // writer finds the wait set and bumps its signal count, which the watcher compares against before waiting.
+    // The read lock is never taken while holding a KeyWatchers monitor.
+    private VersionedValue watch(String key, long sinceVersion, long nanos) throws InterruptedException {
+        long deadline = System.nanoTime() + nanos;
+        watchers.incrementAndGet();
+        KeyWatchers waitSet = joinWaitSet(key);
+        try {
+            while (true) {
+                long signals;
+                synchronized (waitSet) {
+                    signals = waitSet.signals;
+                }
+                VersionedValue current = versioned(key);
+                if (current.version > sinceVersion) {
+                    return current;
+                }
+                synchronized (waitSet) {
+                    while (waitSet.signals == signals) {
+                        if (nanos == NO_TIMEOUT) {
+                            waitSet.wait();
+                        } else {
+                            long remaining = deadline - System.nanoTime();
+                            if (remaining <= 0) {
+                                return null;
+                            }
+                            TimeUnit.NANOSECONDS.timedWait(waitSet, remaining);
+                        }
+                    }
+                }
+            }
+        } finally {
+            leaveWaitSet(key, waitSet);
+            watchers.decrementAndGet();
+        }
+    }
+
+    public int size() {
+        lock.beginRead();
+        try {
+            return data.size();
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    // Visits every entry under a single read lock, so the action sees one consistent state
+    public void forEach(BiConsumer<String, String> action) {
+        lock.beginRead();
+        try {
+            data.forEach(action);
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    private int readAll(String[] keys, String[] values) {
+        int found = 0;
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = data.get(keys[i]);
+            if (values[i] != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // Caller must hold the write lock
+    private void put(String key, String value) {
+        data.put(key, value);
+        versions.put(key, ++globalVersion);
+    }
+
+    private VersionedValue versioned(String key) {
+        lock.beginRead();
+        try {
+            return new VersionedValue(data.get(key), versions.getOrDefault(key, 0L));
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    // Wakes only the watchers of key. Called after the write lock is released so they can read straight away.
+    private void notifyWatchers(String key) {
+        if (watchers.get() == 0) {
+            return;
+        }
+        KeyWatchers waitSet = keyWatchers.get(key);
+        if (waitSet != null) {
+            synchronized (waitSet) {
+                waitSet.signals++;
+                waitSet.notifyAll();
+            }
+        }
+    }
+
+    private KeyWatchers joinWaitSet(String key) {
+        while (true) {
+            KeyWatchers waitSet = keyWatchers.computeIfAbsent(key, k -> new KeyWatchers());
+            synchronized (waitSet) {
+                if (!waitSet.removed) {
+                    waitSet.waiting++;
+                    return waitSet;
+                }
+            }
+            // The last watcher just left and unmapped it, writers won't look at this one any more
+        }
+    }
+
+    private void leaveWaitSet(String key, KeyWatchers waitSet) {
+        synchronized (waitSet) {
+            if (--waitSet.waiting == 0) {
+                waitSet.removed = true;
+                keyWatchers.remove(key, waitSet);
+            }
+        }
+    }
+
+    // Per-key wait set, all fields guarded by its own monitor
+    private static final class KeyWatchers {
+        int waiting = 0;
+        long signals = 0;
+        boolean removed = false;
+    }
+}
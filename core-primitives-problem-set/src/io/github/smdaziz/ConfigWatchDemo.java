@@ -0,0 +1,50 @@
+package io.github.smdaziz;
+
+// Goal: Notice new config values without polling.
+// RWBufferReader sleeps and calls get() in a loop, paying a read-lock acquisition per check whether
+// anything changed or not. RWBufferWatcher blocks in ConfigStore.watch() and only wakes up when a write happened.
+public class ConfigWatchDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        ConfigStore configStore = new ConfigStore(new RWWriterPreferredLock());
+        Thread writer = new Thread(new RWBufferWriter(configStore), "Writer-1");
+        Thread[] watchers = new Thread[3];
+        for (int i = 0; i < watchers.length; i++) {
+            watchers[i] = new Thread(new RWBufferWatcher(configStore), "Watcher-" + (i + 1));
+            watchers[i].start();
+        }
+        writer.start();
+        try {
+            writer.join();
+            for (Thread t : watchers) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Global version: " + configStore.version());
+        System.out.println("Main thread finished.");
+    }
+}
+
+class RWBufferWatcher implements Runnable {
+    private final ConfigStore configStore;
+
+    public RWBufferWatcher(ConfigStore configStore) {
+        this.configStore = configStore;
+    }
+
+    @Override
+    public void run() {
+        for (int i = 1; i <= 10; i++) {
+            try {
+                // Version 0 means "never written": returns as soon as RWBufferWriter adds Key-i
+                VersionedValue value = configStore.watch("Key-" + i, 0);
+                System.out.println(Thread.currentThread().getName() + " consumed " + value);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.smdaziz;
+
+class Counter implements Runnable {
+    private int count = 0;
+
+    public int getCount() {
+        return count;
+    }
+
+    public void run() {
+        long start = System.currentTimeMillis();
+        for(int i = 0; i < 1_000_000; i++) {
+            count++;
+        }
+        long end = System.currentTimeMillis();
+        System.out.println(Thread.currentThread().getName() + " took " + (end - start) + " ms to complete");
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.smdaziz;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+// Goal: Compare every counter strategy with warm-up, repeated runs and a correctness check.
+// Problem10 times a single cold run with System.currentTimeMillis(). Here each strategy runs its
+// 1,000,000-increment Runnable on N threads at once (released by a start gate), first a few warm-up
+// rounds for the JIT, then measured rounds. Reported: throughput (mean, stddev) and lost updates,
+// i.e. N * 1,000,000 minus the final count. Reading the count after every round keeps the increments live.
+// Note: the JIT may fold Counter's plain loop into a single add, which is exactly why it "wins" and still loses updates.
+// Usage: CounterBenchmark [threads=1,2,4,8]
+public class CounterBenchmark {
+    private static final int INCREMENTS_PER_THREAD = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        int[] threadCounts = Arrays.stream((args.length > 0 ? args[0] : "1,2,4,8").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        List<Strategy<?>> strategies = new ArrayList<>();
+        strategies.add(new Strategy<>("Counter", Counter::new, Counter::getCount));
+        strategies.add(new Strategy<>("VolatileCounter", VolatileCounter::new, VolatileCounter::getCount));
+        strategies.add(new Strategy<>("SynchronizedRunCounter", SynchronizedRunCounter::new, SynchronizedRunCounter::getCount));
+        strategies.add(new Strategy<>("SynchronizedLoopCounter", SynchronizedLoopCounter::new, SynchronizedLoopCounter::getCount));
+        strategies.add(new Strategy<>("SynchronizedCounter", SynchronizedCounter::new, SynchronizedCounter::getCount));
+        strategies.add(new Strategy<>("ReentrantLockCounter", ReentrantLockCounter::new, ReentrantLockCounter::getCount));
+        strategies.add(new Strategy<>("AtomicLongCounter", AtomicLongCounter::new, AtomicLongCounter::getCount));
+        strategies.add(new Strategy<>("LongAdderCounter", LongAdderCounter::new, LongAdderCounter::getCount));
+        strategies.add(new Strategy<>("StripedCounter", StripedCounter::new, StripedCounter::getCount));
+
+        PrintStream out = System.out;
+        out.printf("%-24s %7s %18s %14s%n", "counter", "threads", "Mops/s", "lost updates");
+        for (int threads : threadCounts) {
+            for (Strategy<?> strategy : strategies) {
+                // The Runnables print their own timing on every run, silence them while measuring
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                String row;
+                try {
+                    row = strategy.measure(threads);
+                } finally {
+                    System.setOut(out);
+                }
+                out.println(row);
+            }
+        }
+        System.out.println("Main thread finished.");
+    }
+
+    static final class Strategy<T extends Runnable> {
+        private final String name;
+        private final Supplier<T> factory;
+        private final ToLongFunction<T> count;
+
+        Strategy(String name, Supplier<T> factory, ToLongFunction<T> count) {
+            this.name = name;
+            this.factory = factory;
+            this.count = count;
+        }
+
+        String measure(int threads) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                round(threads);
+            }
+            double[] mops = new double[MEASURED_ROUNDS];
+            long maxLost = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long[] result = round(threads);
+                mops[i] = (double) threads * INCREMENTS_PER_THREAD * 1_000 / result[0];
+                maxLost = Math.max(maxLost, result[1]);
+            }
+            double mean = Arrays.stream(mops).average().orElse(0);
+            double stddev = Math.sqrt(Arrays.stream(mops).map(x -> (x - mean) * (x - mean)).sum() / mops.length);
+            return String.format("%-24s %7d %10.1f +-%5.1f %14d", name, threads, mean, stddev, maxLost);
+        }
+
+        // One round on a fresh counter: returns {elapsed nanos, lost updates}
+        private long[] round(int threads) {
+            T counter = factory.get();
+            CountDownLatch startGate = new CountDownLatch(1);
+            Thread[] workers = new Thread[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Thread(() -> {
+                    try {
+                        startGate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    counter.run();
+                }, name + "-" + (i + 1));
+                workers[i].start();
+            }
+            long start = System.nanoTime();
+            startGate.countDown();
+            try {
+                for (Thread t : workers) {
+                    t.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long elapsed = System.nanoTime() - start;
+            long lost = (long) threads * INCREMENTS_PER_THREAD - count.applyAsLong(counter);
+            return new long[]{elapsed, lost};
+        }
+    }
+}
+
+// Same as lock.LockCounterDemo's LockCounter, which lives in another source root
+class ReentrantLockCounter implements Runnable {
+    private int count;
+    private final Lock lock = new ReentrantLock();
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void run() {
+        for(int i = 0; i < 1_000_000; i++) {
+            lock.lock();
+            try {
+                count++;
+            } finally {
+                lock.unlock();
+            }
+        }
+        System.out.println(Thread.currentThread().getName() + " final count: " + count);
+    }
+}
+
+class AtomicLongCounter implements Runnable {
+    private final AtomicLong count = new AtomicLong();
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public void run() {
+        for(int i = 0; i < 1_000_000; i++) {
+            count.incrementAndGet();
+        }
+    }
+}
+
+class LongAdderCounter implements Runnable {
+    private final LongAdder count = new LongAdder();
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public void run() {
+        for(int i = 0; i < 1_000_000; i++) {
+            count.increment();
+        }
+    }
+}
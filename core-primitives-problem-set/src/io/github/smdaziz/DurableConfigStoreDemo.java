@@ -0,0 +1,506 @@
+package io.github.smdaziz;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Goal: ConfigStore survives a restart, and restarting does not mean replaying every write ever made.
+// Writes are appended to a write-ahead log, and concurrent writers share one fsync (group commit).
+// The log is periodically compacted into a sorted snapshot file which is memory-mapped at startup and
+// searched in place, so opening the store only maps the snapshot and replays the short log tail.
+public class DurableConfigStoreDemo {
+    public static void main(String[] args) throws IOException {
+        System.out.println("Main thread started.");
+        Path directory = Files.createTempDirectory("durable-config-store");
+        int numWriters = 4;
+        int keysPerWriter = 25_000;
+        try (DurableConfigStore store = DurableConfigStore.open(directory, 40_000)) {
+            Thread[] writers = new Thread[numWriters];
+            long start = System.nanoTime();
+            for (int w = 0; w < numWriters; w++) {
+                final int writerId = w;
+                writers[w] = new Thread(() -> {
+                    for (int i = 1; i <= keysPerWriter; i++) {
+                        store.add("Key-" + writerId + "-" + i, "Value-" + i);
+                    }
+                }, "Writer-" + (w + 1));
+                writers[w].start();
+            }
+            for (Thread t : writers) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            System.out.println((numWriters * keysPerWriter) + " durable writes in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms, " + store.syncCount() + " fsyncs");
+        }
+        long start = System.nanoTime();
+        try (DurableConfigStore reopened = DurableConfigStore.open(directory, 40_000)) {
+            long openMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Reopened in " + openMillis + " ms, Key-3-25000=" + reopened.get("Key-3-25000")
+                    + ", Key-0-1=" + reopened.get("Key-0-1"));
+        }
+        System.out.println("Main thread finished.");
+    }
+}
+
+// ConfigStore with optional durability. Lookups go newest to oldest:
+// overlay (writes since the last rotation) -> frozen (overlay being compacted, if any) -> mapped snapshot.
+// Compaction rotates to a fresh log and overlay under a short gate, then writes the snapshot in the background.
+class DurableConfigStore implements AutoCloseable {
+    private final Path directory;
+    private final long compactEveryRecords;
+    // Writers hold the read side while appending to the log and the overlay,
+    // rotation holds the write side so no write is split across the old and the new log
+    private final RWLock rotationGate = new RWWriterPreferredLock();
+    // Writes to one key go to the log and the overlay in the same order: the stripe is held across both,
+    // so a replay ends on the value readers saw. Writes to different keys still share fsyncs.
+    private final Object[] keyLocks = new Object[64];
+    private final Object compactionMonitor = new Object(); // one compaction at a time
+    private final AtomicLong recordsSinceCompaction = new AtomicLong();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final AtomicLong syncs = new AtomicLong();
+    private final ExecutorService compactor;
+    private volatile WriteAheadLog wal;
+    private volatile ConfigStore overlay;
+    private volatile ConfigStore frozen;
+    private volatile MappedSnapshot snapshot;
+    private long walSequence; // guarded by rotationGate's write side (and open)
+
+    private DurableConfigStore(Path directory, long compactEveryRecords) {
+        this.directory = directory;
+        this.compactEveryRecords = compactEveryRecords;
+        for (int i = 0; i < keyLocks.length; i++) {
+            keyLocks[i] = new Object();
+        }
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "DurableConfigStore-Compactor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Maps the snapshot (no parsing) and replays only the log files written after it
+    public static DurableConfigStore open(Path directory, long compactEveryRecords) throws IOException {
+        Files.createDirectories(directory);
+        DurableConfigStore store = new DurableConfigStore(directory, compactEveryRecords);
+        Path snapshotFile = directory.resolve(MappedSnapshot.FILE_NAME);
+        store.snapshot = Files.exists(snapshotFile) ? MappedSnapshot.open(snapshotFile) : null;
+        long coveredUpTo = store.snapshot == null ? 0 : store.snapshot.walSequence;
+        store.overlay = new ConfigStore(new RWWriterPreferredLock());
+        long lastSequence = coveredUpTo;
+        for (long sequence : store.walSequences()) {
+            if (sequence < coveredUpTo) {
+                Files.deleteIfExists(store.walFile(sequence)); // already in the snapshot
+            } else {
+                WriteAheadLog.replay(store.walFile(sequence), store.overlay::add);
+                lastSequence = Math.max(lastSequence, sequence);
+            }
+        }
+        store.walSequence = lastSequence + 1;
+        store.wal = new WriteAheadLog(store.walFile(store.walSequence), store.syncs);
+        return store;
+    }
+
+    // Returns once the write is on disk. Concurrent writers share the fsync.
+    public void add(String key, String value) {
+        synchronized (keyLockFor(key)) {
+            rotationGate.beginRead();
+            try {
+                wal.append(key, value);
+                overlay.add(key, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Write-ahead log append failed for " + key, e);
+            } finally {
+                rotationGate.endRead();
+            }
+        }
+        if (recordsSinceCompaction.incrementAndGet() >= compactEveryRecords && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    e.printStackTrace(); // the log still has everything, the next compaction retries
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    public String get(String key) {
+        String value = overlay.get(key);
+        if (value != null) {
+            return value;
+        }
+        ConfigStore frozenOverlay = frozen;
+        if (frozenOverlay != null) {
+            value = frozenOverlay.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        MappedSnapshot mapped = snapshot;
+        return mapped == null ? null : mapped.get(key);
+    }
+
+    public void compact() throws IOException {
+        synchronized (compactionMonitor) {
+            recordsSinceCompaction.set(0);
+            long coveredUpTo;
+            WriteAheadLog oldWal;
+            // Short stop-the-writers window: switch to a fresh log and overlay
+            rotationGate.beginWrite();
+            try {
+                oldWal = wal;
+                if (frozen == null) {
+                    frozen = overlay; // published before the new overlay, so readers never miss it
+                } else {
+                    // The previous compaction failed and its logs are still on disk, keep its entries too
+                    overlay.forEach(frozen::add);
+                }
+                overlay = new ConfigStore(new RWWriterPreferredLock());
+                walSequence++;
+                wal = new WriteAheadLog(walFile(walSequence), syncs);
+                coveredUpTo = walSequence;
+            } finally {
+                rotationGate.endWrite();
+            }
+            oldWal.close();
+            // Writers and readers carry on while the old snapshot and the frozen overlay are merged
+            Map<String, String> merged = new HashMap<>();
+            MappedSnapshot oldSnapshot = snapshot;
+            if (oldSnapshot != null) {
+                oldSnapshot.forEach(merged::put);
+            }
+            frozen.forEach(merged::put);
+            Path snapshotFile = directory.resolve(MappedSnapshot.FILE_NAME);
+            MappedSnapshot.write(snapshotFile, merged, coveredUpTo);
+            snapshot = MappedSnapshot.open(snapshotFile);
+            frozen = null; // after the new snapshot is visible, see get()
+            for (long sequence : walSequences()) {
+                if (sequence < coveredUpTo) {
+                    Files.deleteIfExists(walFile(sequence));
+                }
+            }
+        }
+    }
+
+    public long syncCount() {
+        return syncs.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rotationGate.beginWrite();
+        try {
+            wal.close();
+        } finally {
+            rotationGate.endWrite();
+        }
+    }
+
+    private Object keyLockFor(String key) {
+        int h = key.hashCode();
+        return keyLocks[(h ^ (h >>> 16)) & (keyLocks.length - 1)];
+    }
+
+    private Path walFile(long sequence) {
+        return directory.resolve(String.format("config-%019d.wal", sequence));
+    }
+
+    private List<Long> walSequences() throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith("config-") && name.endsWith(".wal"))
+                    .forEach(name -> sequences.add(Long.parseLong(name.substring(7, name.length() - 4))));
+        }
+        sequences.sort(Comparator.naturalOrder());
+        return sequences;
+    }
+}
+
+// Append-only log with group commit. A writer adds its record to the pending batch and then either becomes
+// the leader (writes and fsyncs everything pending) or waits for the current leader's fsync to cover it.
+// Record layout: [int payloadLength][int crc32][int keyLength][key utf-8][int valueLength][value utf-8]
+class WriteAheadLog {
+    private final FileChannel channel;
+    private final Object monitor = new Object();
+    private List<byte[]> pending = new ArrayList<>(); // guarded by monitor
+    private long appendedSequence = 0; // guarded by monitor
+    private long durableSequence = 0; // guarded by monitor
+    private boolean flushing = false; // guarded by monitor
+    private IOException failure; // guarded by monitor, sticky once set
+    private final AtomicLong syncs;
+
+    WriteAheadLog(Path file, AtomicLong syncs) throws IOException {
+        this.syncs = syncs;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        MappedSnapshot.syncDirectory(file.getParent()); // fsyncing the file alone doesn't persist its directory entry
+    }
+
+    public void append(String key, String value) throws IOException {
+        byte[] record = encode(key, value);
+        long mySequence;
+        synchronized (monitor) {
+            pending.add(record);
+            mySequence = ++appendedSequence;
+        }
+        while (true) {
+            List<byte[]> batch;
+            long batchEnd;
+            synchronized (monitor) {
+                boolean wasInterrupted = false;
+                while (flushing && durableSequence < mySequence && failure == null) {
+                    try {
+                        monitor.wait();
+                    } catch (InterruptedException e) {
+                        wasInterrupted = true; // keep waiting, preserve status
+                    }
+                }
+                if (wasInterrupted) Thread.currentThread().interrupt();
+                if (failure != null) {
+                    throw new IOException("Write-ahead log is unusable", failure);
+                }
+                if (durableSequence >= mySequence) {
+                    return; // another leader's fsync covered our record
+                }
+                // Become the leader for everything appended so far
+                flushing = true;
+                batch = pending;
+                pending = new ArrayList<>();
+                batchEnd = appendedSequence;
+            }
+            IOException error = null;
+            try {
+                write(batch);
+                channel.force(false);
+                syncs.incrementAndGet();
+            } catch (IOException e) {
+                error = e;
+            }
+            synchronized (monitor) {
+                flushing = false;
+                if (error == null) {
+                    durableSequence = batchEnd;
+                } else {
+                    failure = error;
+                }
+                monitor.notifyAll();
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Replays every intact record, stopping at the first torn or corrupt one (a crash mid-append)
+    static void replay(Path file, BiConsumer<String, String> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 8 || length > buffer.remaining()) {
+                return;
+            }
+            crc.reset();
+            crc.update(buffer.array(), buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+            byte[] key = new byte[buffer.getInt()];
+            buffer.get(key);
+            byte[] value = new byte[buffer.getInt()];
+            buffer.get(value);
+            consumer.accept(new String(key, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void write(List<byte[]> batch) throws IOException {
+        int size = 0;
+        for (byte[] record : batch) {
+            size += record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : batch) {
+            buffer.put(record);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] encode(String key, String value) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] v = value.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = 4 + k.length + 4 + v.length;
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payloadLength);
+        buffer.putInt(payloadLength).putInt(0).putInt(k.length).put(k).putInt(v.length).put(v);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 8, payloadLength);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.array();
+    }
+}
+
+// Immutable, memory-mapped snapshot with entries sorted by the unsigned bytes of their UTF-8 key.
+// Opening it maps the file and reads a 16 byte header, lookups binary-search the offset table in place,
+// and the OS pages in only what is touched. Offsets are ints, so one snapshot is limited to 2 GB.
+// Layout: [int magic][int count][long walSequence][int offset * count][entries: int keyLength, key, int valueLength, value]
+class MappedSnapshot {
+    static final String FILE_NAME = "config.snapshot";
+    private static final int MAGIC = 0x43464753; // "CFGS"
+    private static final int HEADER = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    final long walSequence; // logs with a lower sequence are fully contained in this snapshot
+
+    private MappedSnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a config snapshot");
+        }
+        this.count = buffer.getInt(4);
+        this.walSequence = buffer.getLong(8);
+    }
+
+    static MappedSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new MappedSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Written to a temporary file, fsynced and atomically renamed, so a crash leaves either the old or the new one.
+    // The directory is fsynced after the rename, otherwise the rename itself may not survive a crash.
+    static void write(Path file, Map<String, String> entries, long walSequence) throws IOException {
+        TreeMap<byte[], byte[]> sorted = new TreeMap<>(Arrays::compareUnsigned);
+        entries.forEach((k, v) -> sorted.put(k.getBytes(StandardCharsets.UTF_8), v.getBytes(StandardCharsets.UTF_8)));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(sorted.size());
+            out.writeLong(walSequence);
+            long offset = HEADER + 4L * sorted.size();
+            for (Map.Entry<byte[], byte[]> entry : sorted.entrySet()) {
+                if (offset > Integer.MAX_VALUE) {
+                    throw new IOException("Snapshot exceeds 2 GB");
+                }
+                out.writeInt((int) offset);
+                offset += 8 + entry.getKey().length + entry.getValue().length;
+            }
+            for (Map.Entry<byte[], byte[]> entry : sorted.entrySet()) {
+                out.writeInt(entry.getKey().length);
+                out.write(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file.getParent());
+    }
+
+    static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Windows can't open a directory as a channel; there the rename is already durable
+            if (!System.getProperty("os.name").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+
+    public String get(String key) {
+        byte[] target = key.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = buffer.getInt(HEADER + 4 * mid);
+            int cmp = compareKey(position, target);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                int keyLength = buffer.getInt(position);
+                int valuePosition = position + 4 + keyLength;
+                byte[] value = new byte[buffer.getInt(valuePosition)];
+                buffer.get(valuePosition + 4, value); // absolute get, safe for concurrent readers
+                return new String(value, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    public void forEach(BiConsumer<String, String> action) {
+        for (int i = 0; i < count; i++) {
+            int position = buffer.getInt(HEADER + 4 * i);
+            byte[] key = new byte[buffer.getInt(position)];
+            buffer.get(position + 4, key);
+            int valuePosition = position + 4 + key.length;
+            byte[] value = new byte[buffer.getInt(valuePosition)];
+            buffer.get(valuePosition + 4, value);
+            action.accept(new String(key, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    // Unsigned byte comparison of the stored key against target, without copying the stored key
+    private int compareKey(int position, byte[] target) {
+        int length = buffer.getInt(position);
+        int common = Math.min(length, target.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(position + 4 + i) & 0xFF, target[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, target.length);
+    }
+}
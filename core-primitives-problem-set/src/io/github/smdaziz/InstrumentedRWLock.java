@@ -0,0 +1,263 @@
+package io.github.smdaziz;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Decorator, the wrapped lock does the actual locking. Recording costs two nanoTime() calls and an atomic
+// increment per acquire and per release. Upgradeable reads are profiled as reads, upgrade() as a write.
+// Hold times are measured from the outermost acquire, so a thread that nests reads counts as one hold.
+class InstrumentedRWLock implements RWLock {
+    private final String name;
+    private final RWLock delegate;
+    private final long eventThresholdNanos;
+    private final LatencyHistogram readWait = new LatencyHistogram();
+    private final LatencyHistogram readHold = new LatencyHistogram();
+    private final LatencyHistogram writeWait = new LatencyHistogram();
+    private final LatencyHistogram writeHold = new LatencyHistogram();
+    private final AtomicInteger waitingReaders = new AtomicInteger();
+    private final AtomicInteger waitingWriters = new AtomicInteger();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final ThreadLocal<HoldState> holds = ThreadLocal.withInitial(HoldState::new);
+
+    public InstrumentedRWLock(String name, RWLock delegate, long eventThreshold, TimeUnit unit) {
+        this.name = name;
+        this.delegate = delegate;
+        this.eventThresholdNanos = unit.toNanos(eventThreshold);
+    }
+
+    public void beginRead() {
+        long start = System.nanoTime();
+        waitingReaders.incrementAndGet();
+        try {
+            delegate.beginRead();
+        } finally {
+            waitingReaders.decrementAndGet();
+        }
+        readAcquired(start);
+    }
+
+    public void endRead() {
+        readReleased();
+        delegate.endRead();
+    }
+
+    public void beginWrite() {
+        long start = System.nanoTime();
+        waitingWriters.incrementAndGet();
+        try {
+            delegate.beginWrite();
+        } finally {
+            waitingWriters.decrementAndGet();
+        }
+        writeAcquired(start);
+    }
+
+    public void endWrite() {
+        writeReleased();
+        delegate.endWrite();
+    }
+
+    public long tryOptimisticRead() {
+        return delegate.tryOptimisticRead();
+    }
+
+    public boolean validate(long stamp) {
+        return delegate.validate(stamp);
+    }
+
+    public void beginUpgradeableRead() {
+        long start = System.nanoTime();
+        waitingReaders.incrementAndGet();
+        try {
+            delegate.beginUpgradeableRead();
+        } finally {
+            waitingReaders.decrementAndGet();
+        }
+        readAcquired(start);
+    }
+
+    public void endUpgradeableRead() {
+        readReleased();
+        delegate.endUpgradeableRead();
+    }
+
+    public void upgrade() {
+        long start = System.nanoTime();
+        waitingWriters.incrementAndGet();
+        try {
+            delegate.upgrade();
+        } finally {
+            waitingWriters.decrementAndGet();
+        }
+        readReleased(); // the read hold ends when the write hold begins
+        writeAcquired(start);
+    }
+
+    public void downgrade() {
+        delegate.downgrade();
+        long now = System.nanoTime();
+        writeReleased();
+        HoldState state = holds.get();
+        if (state.readDepth++ == 0) {
+            state.readStart = now;
+        }
+    }
+
+    public boolean tryBeginRead() {
+        long start = System.nanoTime();
+        if (!delegate.tryBeginRead()) {
+            return false;
+        }
+        readAcquired(start);
+        return true;
+    }
+
+    public boolean tryBeginWrite() {
+        long start = System.nanoTime();
+        if (!delegate.tryBeginWrite()) {
+            return false;
+        }
+        writeAcquired(start);
+        return true;
+    }
+
+    // A timed acquire that gives up is counted, not recorded as a wait
+    public boolean tryBeginRead(long timeout, TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        waitingReaders.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = delegate.tryBeginRead(timeout, unit);
+        } finally {
+            waitingReaders.decrementAndGet();
+        }
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            return false;
+        }
+        readAcquired(start);
+        return true;
+    }
+
+    public boolean tryBeginWrite(long timeout, TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        waitingWriters.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = delegate.tryBeginWrite(timeout, unit);
+        } finally {
+            waitingWriters.decrementAndGet();
+        }
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            return false;
+        }
+        writeAcquired(start);
+        return true;
+    }
+
+    public void beginReadInterruptibly() throws InterruptedException {
+        long start = System.nanoTime();
+        waitingReaders.incrementAndGet();
+        try {
+            delegate.beginReadInterruptibly();
+        } finally {
+            waitingReaders.decrementAndGet();
+        }
+        readAcquired(start);
+    }
+
+    public void beginWriteInterruptibly() throws InterruptedException {
+        long start = System.nanoTime();
+        waitingWriters.incrementAndGet();
+        try {
+            delegate.beginWriteInterruptibly();
+        } finally {
+            waitingWriters.decrementAndGet();
+        }
+        writeAcquired(start);
+    }
+
+    // Timed acquires that gave up
+    public long timeouts() {
+        return timeouts.get();
+    }
+
+    public LatencyHistogram readWait() {
+        return readWait;
+    }
+
+    public LatencyHistogram readHold() {
+        return readHold;
+    }
+
+    public LatencyHistogram writeWait() {
+        return writeWait;
+    }
+
+    public LatencyHistogram writeHold() {
+        return writeHold;
+    }
+
+    // Threads currently blocked in an acquire, per mode
+    public int waitingReaders() {
+        return waitingReaders.get();
+    }
+
+    public int waitingWriters() {
+        return waitingWriters.get();
+    }
+
+    public String report() {
+        return name + "\n  read  wait " + readWait + "\n  read  hold " + readHold
+                + "\n  write wait " + writeWait + "\n  write hold " + writeHold + "\n  timeouts " + timeouts;
+    }
+
+    private void readAcquired(long start) {
+        long now = System.nanoTime();
+        waited("read", now - start, readWait);
+        HoldState state = holds.get();
+        if (state.readDepth++ == 0) {
+            state.readStart = now;
+        }
+    }
+
+    private void readReleased() {
+        HoldState state = holds.get();
+        if (--state.readDepth == 0) {
+            readHold.record(System.nanoTime() - state.readStart);
+        }
+    }
+
+    private void writeAcquired(long start) {
+        long now = System.nanoTime();
+        waited("write", now - start, writeWait);
+        holds.get().writeStart = now;
+    }
+
+    private void writeReleased() {
+        writeHold.record(System.nanoTime() - holds.get().writeStart);
+    }
+
+    private void waited(String mode, long nanos, LatencyHistogram histogram) {
+        histogram.record(nanos);
+        if (nanos >= eventThresholdNanos) {
+            RWLockWaitEvent event = new RWLockWaitEvent();
+            if (event.isEnabled()) {
+                event.lock = name;
+                event.mode = mode;
+                event.waitTime = nanos;
+                event.waitingReaders = waitingReaders.get();
+                event.waitingWriters = waitingWriters.get();
+                event.commit();
+            }
+        }
+    }
+
+    private static final class HoldState {
+        int readDepth;
+        long readStart;
+        long writeStart;
+    }
+}
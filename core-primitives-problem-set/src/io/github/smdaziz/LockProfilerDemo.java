@@ -0,0 +1,91 @@
+package io.github.smdaziz;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+// Goal: See who waits on an RWLock, in which mode, and for how long.
+// InstrumentedRWLock wraps any RWLock and records wait and hold times per mode into log-linear histograms,
+// counts the threads currently queued for each mode, and emits a JFR event for every wait above a threshold,
+// so starvation shows up in a flight recording without attaching a debugger.
+public class LockProfilerDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        Recording recording = new Recording();
+        recording.enable(RWLockWaitEvent.class);
+        recording.start();
+        profile("RWReaderPreferredLock", RWReaderPreferredLock::new);
+        profile("RWWriterPreferredLock", RWWriterPreferredLock::new);
+        recording.stop();
+        try {
+            Path file = Files.createTempFile("rwlock", ".jfr");
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            long writerEvents = events.stream().filter(e -> "write".equals(e.getString("mode"))).count();
+            System.out.println("JFR: " + events.size() + " waits over 1 ms recorded, " + writerEvents + " of them by writers");
+            Files.delete(file);
+        } catch (IOException e) {
+            System.out.println("JFR: could not dump recording: " + e.getMessage());
+        } finally {
+            recording.close();
+        }
+        System.out.println("Main thread finished.");
+    }
+
+    private static void profile(String name, Supplier<RWLock> lockFactory) {
+        InstrumentedRWLock lock = new InstrumentedRWLock(name, lockFactory.get(), 1, TimeUnit.MILLISECONDS);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            boolean isWriter = i < 2;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    if (isWriter) {
+                        lock.beginWrite();
+                        try {
+                            spin(5_000);
+                        } finally {
+                            lock.endWrite();
+                        }
+                    } else {
+                        lock.beginRead();
+                        try {
+                            spin(20_000);
+                        } finally {
+                            lock.endRead();
+                        }
+                    }
+                }
+            }, (isWriter ? "Writer-" : "Reader-") + (i + 1));
+            threads[i].start();
+        }
+        try {
+            // Sample the queue lengths while the threads run, like a gauge would
+            int maxWaitingReaders = 0, maxWaitingWriters = 0;
+            for (Thread t : threads) {
+                while (t.isAlive()) {
+                    maxWaitingReaders = Math.max(maxWaitingReaders, lock.waitingReaders());
+                    maxWaitingWriters = Math.max(maxWaitingWriters, lock.waitingWriters());
+                    t.join(1);
+                }
+            }
+            System.out.println(lock.report());
+            System.out.println("  sampled max queued: readers=" + maxWaitingReaders + " writers=" + maxWaitingWriters);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.smdaziz;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Goal: Tens of millions of keys without gigabytes of heap and long GC pauses.
+// A HashMap<String, String> costs a Node, two Strings and two byte[] per entry, all of which the GC must trace.
+// OffHeapConfigStore keeps the same add/get API but stores UTF-8 keys and values inline in direct ByteBuffers,
+// indexed by an open-addressing table, so the heap only holds a handful of objects whatever the key count.
+public class OffHeapConfigStoreDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        int numKeys = 2_000_000;
+        OffHeapConfigStore store = new OffHeapConfigStore(new RWWriterPreferredLock(), numKeys, 64 * numKeys);
+        long start = System.nanoTime();
+        for (int i = 1; i <= numKeys; i++) {
+            store.add("Key-" + i, "Value-" + i);
+        }
+        for (int i = 1; i <= numKeys; i += 10) {
+            store.add("Key-" + i, "Value-" + i + "-updated"); // overwrites leave garbage until the next compaction
+        }
+        System.out.println("Loaded " + numKeys + " keys in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        System.out.println("Key-1=" + store.get("Key-1") + ", Key-2=" + store.get("Key-2") + ", Missing=" + store.get("Missing"));
+        System.out.println(store.footprint());
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println("Heap in use: " + (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + " MB");
+        System.out.println("Main thread finished.");
+    }
+}
+
+// Open-addressing hash table over two direct buffers, guarded by any RWLock implementation.
+// - table: one long per slot, high 32 bits = key hash, low 32 bits = record offset + 1 (0 marks an empty slot).
+//   Linear probing, the stored hash lets most probes skip the key comparison.
+// - data: append-only records [int keyLength][int valueLength][key utf-8][value utf-8]. An overwrite appends
+//   a new record and leaves the old one as garbage, reclaimed when the buffer has to grow anyway.
+// Offsets are ints, so each buffer is limited to 2 GB; shard across several stores beyond that.
+class OffHeapConfigStore {
+    private static final double MAX_LOAD_FACTOR = 0.7;
+    private static final int RECORD_HEADER = 8;
+    // Largest power of two whose table (slots * 8 bytes) still fits an int-sized ByteBuffer
+    private static final int MAX_SLOTS = 1 << 27;
+
+    private final RWLock lock;
+    private ByteBuffer table;
+    private int slotMask;
+    private ByteBuffer data;
+    private int dataEnd = 0;
+    private int size = 0;
+    private long garbageBytes = 0;
+
+    public OffHeapConfigStore(RWLock lock, int expectedKeys, int expectedDataBytes) {
+        if (expectedKeys < 0 || expectedKeys > MAX_SLOTS * MAX_LOAD_FACTOR) {
+            throw new IllegalArgumentException("expectedKeys must be in 0.." + (int) (MAX_SLOTS * MAX_LOAD_FACTOR));
+        }
+        this.lock = lock;
+        int slots = Integer.highestOneBit((int) Math.min(MAX_SLOTS, Math.max(16, (long) (expectedKeys / MAX_LOAD_FACTOR) * 2 - 1)));
+        this.table = ByteBuffer.allocateDirect(slots * Long.BYTES);
+        this.slotMask = slots - 1;
+        this.data = ByteBuffer.allocateDirect(Math.max(1024, expectedDataBytes));
+    }
+
+    public void add(String key, String value) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] v = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(k);
+        int recordSize = RECORD_HEADER + k.length + v.length;
+        lock.beginWrite();
+        try {
+            if ((long) dataEnd + recordSize > data.capacity()) {
+                growData(recordSize);
+            }
+            int slot = findSlot(hash, k);
+            long entry = table.getLong(slot * Long.BYTES);
+            if (entry == 0) {
+                if (size + 1 > (slotMask + 1) * MAX_LOAD_FACTOR) {
+                    growTable();
+                    slot = findSlot(hash, k);
+                }
+                size++;
+            } else {
+                int oldOffset = offsetOf(entry);
+                garbageBytes += RECORD_HEADER + data.getInt(oldOffset) + data.getInt(oldOffset + 4);
+            }
+            int offset = dataEnd;
+            data.putInt(offset, k.length);
+            data.putInt(offset + 4, v.length);
+            data.put(offset + RECORD_HEADER, k);
+            data.put(offset + RECORD_HEADER + k.length, v);
+            dataEnd += recordSize;
+            table.putLong(slot * Long.BYTES, ((long) hash << 32) | (offset + 1L));
+        } finally {
+            lock.endWrite();
+        }
+    }
+
+    public String get(String key) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(k);
+        // Always the full read lock: an optimistic read could follow an offset into a buffer that a writer
+        // has just replaced, and off-heap there is no HashMap exception to tell us the read was torn
+        lock.beginRead();
+        try {
+            long entry = table.getLong(findSlot(hash, k) * Long.BYTES);
+            if (entry == 0) {
+                return null;
+            }
+            int offset = offsetOf(entry);
+            byte[] value = new byte[data.getInt(offset + 4)];
+            data.get(offset + RECORD_HEADER + k.length, value); // absolute get, safe for concurrent readers
+            return new String(value, StandardCharsets.UTF_8);
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    public int size() {
+        lock.beginRead();
+        try {
+            return size;
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    public FootprintStats footprint() {
+        lock.beginRead();
+        try {
+            return new FootprintStats(size, slotMask + 1, table.capacity(), data.capacity(), dataEnd, garbageBytes);
+        } finally {
+            lock.endRead();
+        }
+    }
+
+    // Index of the slot holding k, or of the empty slot where k would go
+    private int findSlot(int hash, byte[] k) {
+        int slot = mix(hash) & slotMask;
+        while (true) {
+            long entry = table.getLong(slot * Long.BYTES);
+            if (entry == 0 || ((int) (entry >>> 32) == hash && keyEquals(offsetOf(entry), k))) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private boolean keyEquals(int offset, byte[] k) {
+        if (data.getInt(offset) != k.length) {
+            return false;
+        }
+        int keyStart = offset + RECORD_HEADER;
+        for (int i = 0; i < k.length; i++) {
+            if (data.get(keyStart + i) != k[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Doubles the table and re-inserts every entry by its stored hash, no key needs to be read
+    private void growTable() {
+        int newSlots = (slotMask + 1) * 2;
+        if (newSlots > MAX_SLOTS) {
+            throw new IllegalStateException("Off-heap table is full at " + size + " keys");
+        }
+        ByteBuffer newTable = ByteBuffer.allocateDirect(newSlots * Long.BYTES);
+        int newMask = newSlots - 1;
+        for (int i = 0; i <= slotMask; i++) {
+            long entry = table.getLong(i * Long.BYTES);
+            if (entry != 0) {
+                int slot = mix((int) (entry >>> 32)) & newMask;
+                while (newTable.getLong(slot * Long.BYTES) != 0) {
+                    slot = (slot + 1) & newMask;
+                }
+                newTable.putLong(slot * Long.BYTES, entry);
+            }
+        }
+        table = newTable;
+        slotMask = newMask;
+    }
+
+    // Copies only the live records into a new buffer (dropping overwritten ones) and points the slots at them.
+    // The new buffer is at least twice the live data so growth stays amortized O(1) per write.
+    private void growData(int extraBytes) {
+        long live = (long) dataEnd - garbageBytes;
+        long newCapacity = Math.max(2 * (live + extraBytes), data.capacity());
+        if (newCapacity > Integer.MAX_VALUE) {
+            newCapacity = Integer.MAX_VALUE;
+        }
+        if (live + extraBytes > newCapacity) {
+            throw new IllegalStateException("Off-heap data exceeds 2 GB");
+        }
+        ByteBuffer newData = ByteBuffer.allocateDirect((int) newCapacity);
+        int newEnd = 0;
+        for (int i = 0; i <= slotMask; i++) {
+            long entry = table.getLong(i * Long.BYTES);
+            if (entry != 0) {
+                int offset = offsetOf(entry);
+                int recordSize = RECORD_HEADER + data.getInt(offset) + data.getInt(offset + 4);
+                newData.put(newEnd, data, offset, recordSize);
+                table.putLong(i * Long.BYTES, (entry & 0xFFFF_FFFF_0000_0000L) | (newEnd + 1L));
+                newEnd += recordSize;
+            }
+        }
+        data = newData; // the old direct buffer is freed once it becomes unreachable
+        dataEnd = newEnd;
+        garbageBytes = 0;
+    }
+
+    private static int offsetOf(long entry) {
+        return (int) (entry & 0xFFFF_FFFFL) - 1;
+    }
+
+    private static int hash(byte[] k) {
+        int h = 1;
+        for (byte b : k) {
+            h = 31 * h + b;
+        }
+        return h;
+    }
+
+    // Spreads the hash so that keys differing only in their last characters don't probe neighbouring slots
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
+
+class FootprintStats {
+    final int keys;
+    final int slots;
+    final long tableBytes;
+    final long dataCapacityBytes;
+    final long dataUsedBytes;
+    final long garbageBytes;
+
+    FootprintStats(int keys, int slots, long tableBytes, long dataCapacityBytes, long dataUsedBytes, long garbageBytes) {
+        this.keys = keys;
+        this.slots = slots;
+        this.tableBytes = tableBytes;
+        this.dataCapacityBytes = dataCapacityBytes;
+        this.dataUsedBytes = dataUsedBytes;
+        this.garbageBytes = garbageBytes;
+    }
+
+    public long offHeapBytes() {
+        return tableBytes + dataCapacityBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("keys=%d load=%.2f table=%d MB data=%d/%d MB (garbage %d MB) off-heap total=%d MB, %.1f bytes/key",
+                keys, (double) keys / slots, tableBytes >> 20, dataUsedBytes >> 20, dataCapacityBytes >> 20,
+                garbageBytes >> 20, offHeapBytes() >> 20, keys == 0 ? 0.0 : (double) offHeapBytes() / keys);
+    }
+}
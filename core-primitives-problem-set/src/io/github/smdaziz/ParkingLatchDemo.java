@@ -0,0 +1,254 @@
+package io.github.smdaziz;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Goal: A latch without a monitor. ArmstrongFinderLatch (Problem8) and MyWaitLock (Problem5) take a lock
+// for every decrement, and notifyAll wakes every thread in the wait set only for them to re-take that lock.
+// ParkingLatch counts down with a CAS and keeps its waiters in a Treiber stack: the last countDown swaps
+// the stack for a RELEASED sentinel and unparks exactly the threads that were waiting.
+// 1) Thousands of tasks counting down at once, against ArmstrongFinderLatch doing the same.
+// 2) Several independent waiters on one latch, plus a timed await that gives up.
+// 3) A one-shot barrier: every worker counts down, then awaits the others (what OneShotBarrier does).
+public class ParkingLatchDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        int tasks = 10_000;
+        for (int round = 0; round < 3; round++) {
+            System.out.println("ArmstrongFinderLatch: " + timeMonitorLatch(tasks) / 1_000 + " us, "
+                    + "ParkingLatch: " + timeParkingLatch(tasks) / 1_000 + " us for " + tasks + " countdowns");
+        }
+        manyWaiters();
+        oneShotBarrier();
+        System.out.println("Main thread finished.");
+    }
+
+    private static long timeMonitorLatch(int tasks) {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        ArmstrongFinderLatch latch = new ArmstrongFinderLatch(tasks);
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            pool.execute(latch::decrement);
+        }
+        latch.waitUntilAllThreadsFinished();
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        return elapsed;
+    }
+
+    private static long timeParkingLatch(int tasks) {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        ParkingLatch latch = new ParkingLatch(tasks);
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            pool.execute(latch::countDown);
+        }
+        latch.await();
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        return elapsed;
+    }
+
+    private static void manyWaiters() {
+        ParkingLatch latch = new ParkingLatch(3);
+        Thread[] waiters = new Thread[4];
+        for (int i = 0; i < waiters.length; i++) {
+            waiters[i] = new Thread(() -> {
+                latch.await();
+                System.out.println(Thread.currentThread().getName() + " released.");
+            }, "Waiter-" + (i + 1));
+            waiters[i].start();
+        }
+        Thread impatient = new Thread(() -> {
+            try {
+                boolean released = latch.await(100, TimeUnit.MILLISECONDS);
+                System.out.println(Thread.currentThread().getName() + " released: " + released + " (count " + latch.getCount() + ")");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Impatient-Waiter");
+        impatient.start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                Thread.sleep(100);
+                System.out.println("countDown, count was " + latch.getCount());
+                latch.countDown();
+            }
+            for (Thread t : waiters) {
+                t.join();
+            }
+            impatient.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void oneShotBarrier() {
+        ParkingLatch barrier = new ParkingLatch(3);
+        Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            long delay = i * 200L;
+            threads[i] = new Thread(() -> {
+                try {
+                    Thread.sleep(delay); // arrive at different times
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                barrier.countDown();
+                barrier.await();
+                System.out.println(Thread.currentThread().getName() + " passed the barrier.");
+            }, "Thread-" + (i + 1));
+            threads[i].start();
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
+class ParkingLatch {
+    private static final long NO_TIMEOUT = -1;
+    // Replaces the waiter stack once the count reaches zero: pushes fail, so late waiters return at once
+    private static final Waiter RELEASED = new Waiter(null);
+
+    private final AtomicInteger count;
+    private final AtomicReference<Waiter> waiters = new AtomicReference<>();
+
+    public ParkingLatch(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be >= 0");
+        }
+        this.count = new AtomicInteger(count);
+        if (count == 0) {
+            waiters.set(RELEASED);
+        }
+    }
+
+    // A plain CAS, nothing else, except for the call that takes the count to zero
+    public void countDown() {
+        int c;
+        do {
+            c = count.get();
+            if (c == 0) {
+                return;
+            }
+        } while (!count.compareAndSet(c, c - 1));
+        if (c == 1) {
+            releaseAll();
+        }
+    }
+
+    public int getCount() {
+        return count.get();
+    }
+
+    // Uninterruptible like the latches it replaces, the interrupt status is restored on return
+    public void await() {
+        try {
+            await(NO_TIMEOUT, false);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e); // not thrown when uninterruptible
+        }
+    }
+
+    public void awaitInterruptibly() throws InterruptedException {
+        await(NO_TIMEOUT, true);
+    }
+
+    // True if the count reached zero, false if the timeout elapsed first
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return await(Math.max(0, unit.toNanos(timeout)), true);
+    }
+
+    private boolean await(long nanos, boolean interruptible) throws InterruptedException {
+        if (interruptible && Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (count.get() == 0) {
+            return true;
+        }
+        Waiter waiter = new Waiter(Thread.currentThread());
+        if (!push(waiter)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + nanos;
+        boolean wasInterrupted = false;
+        // count is zeroed before the stack is swapped, so a pushed waiter either sees 0 here or gets unparked
+        while (count.get() != 0) {
+            if (nanos == NO_TIMEOUT) {
+                LockSupport.park(this);
+            } else {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    waiter.cancel();
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            if (Thread.interrupted()) {
+                if (interruptible) {
+                    waiter.cancel();
+                    throw new InterruptedException();
+                }
+                wasInterrupted = true; // keep waiting, preserve status
+            }
+        }
+        if (wasInterrupted) Thread.currentThread().interrupt();
+        return true;
+    }
+
+    // False if the latch was released meanwhile. Cancelled waiters on top of the stack are popped on the way,
+    // so repeated timed-out awaits don't pile up; ones further down stay until the release walks past them.
+    private boolean push(Waiter waiter) {
+        while (true) {
+            Waiter head = waiters.get();
+            if (head == RELEASED) {
+                return false;
+            }
+            if (head != null && head.isCancelled()) {
+                waiters.compareAndSet(head, head.next);
+                continue;
+            }
+            waiter.next = head;
+            if (waiters.compareAndSet(head, waiter)) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseAll() {
+        for (Waiter w = waiters.getAndSet(RELEASED); w != null; w = w.next) {
+            Thread thread = w.thread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    static final class Waiter {
+        // Cleared when the waiter gives up, so the release doesn't unpark a thread that has moved on
+        volatile Thread thread;
+        // Written before the push CAS publishes the node, never changed afterwards
+        Waiter next;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+
+        void cancel() {
+            thread = null;
+        }
+
+        boolean isCancelled() {
+            return thread == null;
+        }
+    }
+}
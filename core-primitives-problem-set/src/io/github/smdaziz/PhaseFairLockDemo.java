@@ -0,0 +1,82 @@
+package io.github.smdaziz;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+// Goal: Bounded wait for both readers and writers under mixed read/write bursts.
+// RWReaderPreferredLock starves writers, RWWriterPreferredLock starves readers, and both wake every waiter
+// with notifyAll. RWPhaseFairLock alternates reader and writer phases and hands the lock directly to the
+// waiters that are next in line, so nobody else wakes up just to go back to sleep.
+public class PhaseFairLockDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        report("RWReaderPreferredLock", RWReaderPreferredLock::new);
+        report("RWWriterPreferredLock", RWWriterPreferredLock::new);
+        report("RWPhaseFairLock", RWPhaseFairLock::new);
+        System.out.println("Main thread finished.");
+    }
+
+    private static void report(String name, Supplier<RWLock> lockFactory) {
+        RWLock lock = lockFactory.get();
+        int numReaders = 6;
+        int numWriters = 2;
+        int iterations = 2_000;
+        long[][] readWaits = new long[numReaders][iterations];
+        long[][] writeWaits = new long[numWriters][iterations];
+        Thread[] threads = new Thread[numReaders + numWriters];
+        for (int i = 0; i < numReaders; i++) {
+            long[] waits = readWaits[i];
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    long start = System.nanoTime();
+                    lock.beginRead();
+                    waits[j] = System.nanoTime() - start;
+                    try {
+                        spin(20_000); // readers overlap, keeping the lock read-held most of the time
+                    } finally {
+                        lock.endRead();
+                    }
+                }
+            }, "Reader-" + (i + 1));
+        }
+        for (int i = 0; i < numWriters; i++) {
+            long[] waits = writeWaits[i];
+            threads[numReaders + i] = new Thread(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    long start = System.nanoTime();
+                    lock.beginWrite();
+                    waits[j] = System.nanoTime() - start;
+                    try {
+                        spin(5_000);
+                    } finally {
+                        lock.endWrite();
+                    }
+                }
+            }, "Writer-" + (i + 1));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println(name + ": reader wait " + percentiles(readWaits) + ", writer wait " + percentiles(writeWaits));
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static String percentiles(long[][] waits) {
+        long[] all = Arrays.stream(waits).flatMapToLong(Arrays::stream).sorted().toArray();
+        return String.format("p50=%dus p99=%dus max=%dus", all[all.length / 2] / 1_000,
+                all[(int) (all.length * 0.99)] / 1_000, all[all.length - 1] / 1_000);
+    }
+}
@@ -88,92 +88,3 @@ public class Problem10 {
         System.out.println("Synchronized Counter count: " + synchronizedCounter.getCount());
     }
 }
-
-class Counter implements Runnable {
-    private int count = 0;
-
-    public int getCount() {
-        return count;
-    }
-
-    public void run() {
-        long start = System.currentTimeMillis();
-        for(int i = 0; i < 1_000_000; i++) {
-            count++;
-        }
-        long end = System.currentTimeMillis();
-        System.out.println(Thread.currentThread().getName() + " took " + (end - start) + " ms to complete");
-    }
-}
-
-class VolatileCounter implements Runnable {
-    private volatile int count = 0;
-
-    public int getCount() {
-        return count;
-    }
-
-    public void run() {
-        long start = System.currentTimeMillis();
-        for(int i = 0; i < 1_000_000; i++) {
-            count++;
-        }
-        long end = System.currentTimeMillis();
-        System.out.println(Thread.currentThread().getName() + " took " + (end - start) + " ms to complete");
-    }
-}
-
-class SynchronizedRunCounter implements Runnable {
-    private int count = 0;
-
-    public int getCount() {
-        return count;
-    }
-
-    public synchronized void run() {
-        long start = System.currentTimeMillis();
-        for(int i = 0; i < 1_000_000; i++) {
-            count++;
-        }
-        long end = System.currentTimeMillis();
-        System.out.println(Thread.currentThread().getName() + " took " + (end - start) + " ms to complete");
-    }
-}
-
-class SynchronizedLoopCounter implements Runnable {
-    private int count = 0;
-
-    public int getCount() {
-        return count;
-    }
-
-    public void run() {
-        long start = System.currentTimeMillis();
-        synchronized (this) {
-            for(int i = 0; i < 1_000_000; i++) {
-                count++;
-            }
-        }
-        long end = System.currentTimeMillis();
-        System.out.println(Thread.currentThread().getName() + " took " + (end - start) + " ms to complete");
-    }
-}
-
-class SynchronizedCounter implements Runnable {
-    private int count = 0;
-
-    public int getCount() {
-        return count;
-    }
-
-    public void run() {
-        long start = System.currentTimeMillis();
-        for(int i = 0; i < 1_000_000; i++) {
-            synchronized (this) {
-                    count++;
-            }
-        }
-        long end = System.currentTimeMillis();
-        System.out.println(Thread.currentThread().getName() + " took " + (end - start) + " ms to complete");
-    }
-}
@@ -0,0 +1,49 @@
+package io.github.smdaziz;
+
+// Goal: Count correctly from many threads without serializing them on one lock or one memory location.
+// Problem10's counters are racy (Counter, VolatileCounter) or take turns under synchronized.
+// The Striped*Counter family (LongAdder-style) adds into one base cell while threads don't collide, and
+// spreads them over padded cells once they do, so threads on different cores stop fighting over one cache
+// line. Reading the total (sum()) walks the cells, which is fine for metrics that are written far more than read.
+public class Problem10Sol {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        StripedCounter stripedCounter = new StripedCounter();
+        Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(stripedCounter, "StripedCounter-" + (i + 1));
+            threads[i].start();
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Striped Counter count: " + stripedCounter.getCount() + " (cells: " + stripedCounter.cellCount() + ")");
+
+        StripedLongCounter requests = new StripedLongCounter();
+        StripedDoubleCounter latencyMillis = new StripedDoubleCounter();
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 100_000; j++) {
+                    requests.increment();
+                    latencyMillis.add(0.5);
+                }
+            }, "Request-" + (i + 1));
+            threads[i].start();
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // sumThenReset() suits interval reporting: each report covers what was added since the previous one
+        System.out.println("Requests this interval: " + requests.sumThenReset() + ", total latency: " + latencyMillis.sumThenReset() + " ms");
+        System.out.println("Requests after reset: " + requests.sum());
+        System.out.println("Main thread finished.");
+    }
+}
@@ -32,55 +32,6 @@ public class Problem7 {
     }
 }
 
-class BoundedBuffer {
-    private final Object[] buffer;
-    private int putIndex = 0;
-    private int getIndex = 0;
-    private int currentCount = 0;
-
-    public BoundedBuffer(int capacity) {
-        buffer = new Object[capacity];
-    }
-
-    public synchronized void put(Object item) {
-        while(isFull()) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        buffer[putIndex] = item;
-        putIndex = (putIndex + 1) % buffer.length;
-        currentCount++;
-        notifyAll();
-    }
-
-    public synchronized Object get() {
-        while(isEmpty()) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-        Object item = buffer[getIndex];
-        buffer[getIndex] = null; // Empty the slot after consuming
-        getIndex = (getIndex + 1) % buffer.length;
-        currentCount--;
-        notifyAll();
-        return item;
-    }
-
-    public boolean isEmpty() {
-        return currentCount == 0;
-    }
-
-    public boolean isFull() {
-        return currentCount == buffer.length;
-    }
-}
-
 class Producer implements Runnable {
     private final BoundedBuffer buffer;
 
@@ -1,7 +1,5 @@
 package io.github.smdaziz;
 
-import java.util.Arrays;
-
 // Goal: Implement a Latch (main waits until N worker threads finish).
 // No CountDownLatch allowed. No busy waiting.
 // No join() allowed because with join, waiting for N things means N joins (and keeping N thread refs)
@@ -24,31 +22,6 @@ public class Problem8 {
     }
 }
 
-class ArmstrongFinderLatch {
-    private int count = 0;
-
-    public ArmstrongFinderLatch(int count) {
-        this.count = count;
-    }
-
-    public synchronized void waitUntilAllThreadsFinished() {
-        while(count > 0) {
-            try {
-                this.wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
-    }
-
-    public synchronized void decrement() {
-        count--;
-        if (count == 0) {
-            this.notifyAll();
-        }
-    }
-}
-
 class ArmstrongFinder implements Runnable {
     private final ArmstrongFinderLatch latch;
 
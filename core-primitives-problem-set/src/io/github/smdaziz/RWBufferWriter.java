@@ -0,0 +1,23 @@
+package io.github.smdaziz;
+
+class RWBufferWriter implements Runnable {
+    private final ConfigStore configStore;
+
+    public RWBufferWriter(ConfigStore configStore) {
+        this.configStore = configStore;
+    }
+
+    @Override
+    public void run() {
+        for (int i = 1; i <= 10; i++) {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            System.out.println(Thread.currentThread().getName() + " produced { \"Key-" + i + "\", \"Value-" + i + "\"}");
+            configStore.add("Key-" + i, "Value-" + i);
+        }
+    }
+}
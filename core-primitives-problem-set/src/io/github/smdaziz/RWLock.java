@@ -0,0 +1,32 @@
+package io.github.smdaziz;
+
+import java.util.concurrent.TimeUnit;
+
+interface RWLock {
+    void beginRead();
+    void endRead();
+    void beginWrite();
+    void endWrite();
+    // Optimistic (StampedLock-style) reads: the reader writes no shared state at all.
+    // Returns 0 if a writer is active, otherwise a stamp that validate() checks after the reads are done.
+    long tryOptimisticRead();
+    // true if no writer has started since tryOptimisticRead() handed out the stamp
+    boolean validate(long stamp);
+    // Upgradeable read: shares the lock with plain readers, but only one upgrader holds it at a time
+    // and writers stay out, so the upgrader can later turn it into the write lock without losing what it read.
+    void beginUpgradeableRead();
+    void endUpgradeableRead();
+    // Upgradeable read -> write. Waits for the plain readers to leave. Release with endWrite().
+    void upgrade();
+    // Write -> read without letting another writer in between. Release with endRead().
+    void downgrade();
+    // Non-blocking: take the lock only if it is available right now, never wait
+    boolean tryBeginRead();
+    boolean tryBeginWrite();
+    // Timed: false once the timeout elapses. Unlike beginRead()/beginWrite() these respond to interrupts.
+    // A writer that gives up leaves no trace, readers it was holding back are let through.
+    boolean tryBeginRead(long timeout, TimeUnit unit) throws InterruptedException;
+    boolean tryBeginWrite(long timeout, TimeUnit unit) throws InterruptedException;
+    void beginReadInterruptibly() throws InterruptedException;
+    void beginWriteInterruptibly() throws InterruptedException;
+}
@@ -0,0 +1,32 @@
+package io.github.smdaziz;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("io.github.smdaziz.RWLockWait")
+@Label("RWLock Wait")
+@Category("Concurrency")
+@Description("A thread waited longer than the configured threshold to acquire an InstrumentedRWLock")
+@StackTrace(true)
+class RWLockWaitEvent extends Event {
+    @Label("Lock")
+    String lock;
+
+    @Label("Mode")
+    String mode;
+
+    @Label("Wait Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long waitTime;
+
+    @Label("Waiting Readers")
+    int waitingReaders;
+
+    @Label("Waiting Writers")
+    int waitingWriters;
+}
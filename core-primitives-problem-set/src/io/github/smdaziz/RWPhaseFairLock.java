@@ -0,0 +1,345 @@
+package io.github.smdaziz;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Phase-fair reader-writer lock (Brandenburg & Anderson's PF-T, with a FIFO queue instead of spinning on tickets).
+// - A reader that arrives while a writer is active or waiting queues behind that writer.
+// - When a writer leaves, every queued reader is admitted at once (a reader phase).
+// - When the last reader leaves, the oldest queued writer is admitted (a writer phase).
+// So a reader waits for at most one writer phase and a writer for at most one reader phase plus the writers
+// ahead of it. The monitor only guards the bookkeeping, waiters park on their own node and are unparked
+// individually by the thread that hands them the lock.
+class RWPhaseFairLock implements RWLock {
+    private final Object monitor = new Object();
+    private int readers = 0;
+    private boolean isActiveWriter = false;
+    private boolean lastPhaseWasWriter = false;
+    // FIFO, i.e. ticket order within each kind of waiter
+    private final ArrayDeque<Waiter> waitingReaders = new ArrayDeque<>();
+    private final ArrayDeque<Waiter> waitingWriters = new ArrayDeque<>();
+    // The upgrade slot is handed over in FIFO order too. Its holder also counts as one of the readers.
+    private boolean isActiveUpgrader = false;
+    private final ArrayDeque<Waiter> waitingUpgraders = new ArrayDeque<>();
+    // Seqlock-style version: even while no writer is active, odd while one is.
+    // Starts at 2 so that a stamp of 0 can mean "no stamp", like StampedLock.
+    private volatile long version = 2;
+    // nanos argument of the internal waits meaning "wait until granted"
+    private static final long NO_TIMEOUT = -1;
+
+    public void beginRead() {
+        Waiter waiter;
+        synchronized (monitor) {
+            if (!isActiveWriter && waitingWriters.isEmpty()) {
+                readers++;
+                lastPhaseWasWriter = false;
+                return;
+            }
+            waiter = new Waiter(Thread.currentThread());
+            waitingReaders.addLast(waiter);
+        }
+        awaitGrant(waiter);
+    }
+
+    public void endRead() {
+        synchronized (monitor) {
+            readers--;
+            if (readers == 0) {
+                dispatch();
+            }
+        }
+    }
+
+    public void beginWrite() {
+        Waiter waiter;
+        synchronized (monitor) {
+            if (!isActiveWriter && readers == 0 && waitingWriters.isEmpty() && waitingReaders.isEmpty()) {
+                isActiveWriter = true;
+                lastPhaseWasWriter = true;
+                version++;
+                VarHandle.storeStoreFence(); // the writer's data stores must not move above the version bump
+                return;
+            }
+            waiter = new Waiter(Thread.currentThread());
+            waitingWriters.addLast(waiter);
+        }
+        awaitGrant(waiter); // grantWriter() already bumped the version on our behalf
+        VarHandle.storeStoreFence();
+    }
+
+    public void endWrite() {
+        synchronized (monitor) {
+            version++; // even again, volatile write publishes the writer's data stores
+            isActiveWriter = false;
+            dispatch();
+        }
+    }
+
+    public void beginUpgradeableRead() {
+        Waiter waiter = null;
+        synchronized (monitor) {
+            if (!isActiveUpgrader) {
+                isActiveUpgrader = true;
+            } else {
+                waiter = new Waiter(Thread.currentThread());
+                waitingUpgraders.addLast(waiter);
+            }
+        }
+        if (waiter != null) {
+            awaitGrant(waiter);
+        }
+        beginRead(); // the read share itself follows the normal phase rules
+    }
+
+    public void endUpgradeableRead() {
+        synchronized (monitor) {
+            releaseUpgradeSlot();
+            readers--;
+            if (readers == 0) {
+                dispatch();
+            }
+        }
+    }
+
+    public void upgrade() {
+        Waiter waiter;
+        synchronized (monitor) {
+            readers--; // give up our read share, the write lock replaces it
+            if (readers == 0) {
+                // Nobody else holds the lock and no writer can be active while we held a read share
+                releaseUpgradeSlot();
+                isActiveWriter = true;
+                lastPhaseWasWriter = true;
+                version++;
+                VarHandle.storeStoreFence();
+                return;
+            }
+            // Jump the writer queue: we are in the current reader phase, so the last reader to leave
+            // hands the lock to us before any writer that queued while we were reading
+            waiter = new Waiter(Thread.currentThread());
+            waitingWriters.addFirst(waiter);
+        }
+        awaitGrant(waiter);
+        VarHandle.storeStoreFence();
+        synchronized (monitor) {
+            releaseUpgradeSlot();
+        }
+    }
+
+    public void downgrade() {
+        synchronized (monitor) {
+            version++;
+            isActiveWriter = false;
+            readers++;
+            lastPhaseWasWriter = false;
+            // The writer phase is over: readers that queued behind it join the new reader phase
+            grantReaders();
+        }
+    }
+
+    public boolean tryBeginRead() {
+        synchronized (monitor) {
+            if (isActiveWriter || !waitingWriters.isEmpty()) {
+                return false;
+            }
+            readers++;
+            lastPhaseWasWriter = false;
+            return true;
+        }
+    }
+
+    public boolean tryBeginWrite() {
+        synchronized (monitor) {
+            if (isActiveWriter || readers > 0 || !waitingWriters.isEmpty() || !waitingReaders.isEmpty()) {
+                return false;
+            }
+            isActiveWriter = true;
+            lastPhaseWasWriter = true;
+            version++;
+            VarHandle.storeStoreFence();
+            return true;
+        }
+    }
+
+    public boolean tryBeginRead(long timeout, TimeUnit unit) throws InterruptedException {
+        return acquireRead(Math.max(0, unit.toNanos(timeout)));
+    }
+
+    public boolean tryBeginWrite(long timeout, TimeUnit unit) throws InterruptedException {
+        return acquireWrite(Math.max(0, unit.toNanos(timeout)));
+    }
+
+    public void beginReadInterruptibly() throws InterruptedException {
+        acquireRead(NO_TIMEOUT);
+    }
+
+    public void beginWriteInterruptibly() throws InterruptedException {
+        acquireWrite(NO_TIMEOUT);
+    }
+
+    public long tryOptimisticRead() {
+        long stamp = version;
+        return (stamp & 1) == 0 ? stamp : 0;
+    }
+
+    public boolean validate(long stamp) {
+        VarHandle.acquireFence(); // the caller's data loads must complete before version is re-read
+        return stamp != 0 && stamp == version;
+    }
+
+    // Hands the lock to whoever is next. Must be called with the monitor held whenever the state changed.
+    private void dispatch() {
+        if (isActiveWriter) {
+            return;
+        }
+        if (readers > 0) {
+            // Reader phase still running, late readers may only join if no writer is waiting for it to end
+            if (waitingWriters.isEmpty()) {
+                grantReaders();
+            }
+            return;
+        }
+        if (lastPhaseWasWriter && !waitingReaders.isEmpty()) {
+            grantReaders();
+        } else if (!waitingWriters.isEmpty()) {
+            grantWriter();
+        } else {
+            grantReaders();
+        }
+    }
+
+    private void releaseUpgradeSlot() {
+        Waiter next = waitingUpgraders.pollFirst();
+        if (next != null) {
+            next.grant(); // slot passes straight to the next upgrader, isActiveUpgrader stays true
+        } else {
+            isActiveUpgrader = false;
+        }
+    }
+
+    private void grantReaders() {
+        Waiter waiter;
+        while ((waiter = waitingReaders.pollFirst()) != null) {
+            readers++;
+            lastPhaseWasWriter = false;
+            waiter.grant();
+        }
+    }
+
+    private void grantWriter() {
+        Waiter waiter = waitingWriters.pollFirst();
+        isActiveWriter = true;
+        lastPhaseWasWriter = true;
+        version++;
+        waiter.grant();
+    }
+
+    private boolean acquireRead(long nanos) throws InterruptedException {
+        checkInterrupted();
+        Waiter waiter;
+        synchronized (monitor) {
+            if (!isActiveWriter && waitingWriters.isEmpty()) {
+                readers++;
+                lastPhaseWasWriter = false;
+                return true;
+            }
+            waiter = new Waiter(Thread.currentThread());
+            waitingReaders.addLast(waiter);
+        }
+        return awaitGrant(waiter, waitingReaders, nanos);
+    }
+
+    private boolean acquireWrite(long nanos) throws InterruptedException {
+        checkInterrupted();
+        Waiter waiter;
+        synchronized (monitor) {
+            if (!isActiveWriter && readers == 0 && waitingWriters.isEmpty() && waitingReaders.isEmpty()) {
+                isActiveWriter = true;
+                lastPhaseWasWriter = true;
+                version++;
+                VarHandle.storeStoreFence();
+                return true;
+            }
+            waiter = new Waiter(Thread.currentThread());
+            waitingWriters.addLast(waiter);
+        }
+        if (!awaitGrant(waiter, waitingWriters, nanos)) {
+            return false;
+        }
+        VarHandle.storeStoreFence();
+        return true;
+    }
+
+    // Like awaitGrant(waiter), but gives up on timeout (nanos >= 0) or interrupt. Grants happen under the
+    // monitor, so re-checking there decides the race: either the lock was handed over and we keep it,
+    // or the waiter leaves its queue and dispatch() passes the turn on. Without that a writer that gave
+    // up would stay at the head of waitingWriters and hold back every reader behind it forever.
+    private boolean awaitGrant(Waiter waiter, ArrayDeque<Waiter> queue, long nanos) throws InterruptedException {
+        long deadline = System.nanoTime() + nanos;
+        boolean interrupted = false;
+        while (!waiter.granted) {
+            if (Thread.interrupted()) {
+                interrupted = true;
+                break;
+            }
+            if (nanos == NO_TIMEOUT) {
+                LockSupport.park(this);
+            } else {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+        if (!waiter.granted) {
+            synchronized (monitor) {
+                if (!waiter.granted) {
+                    queue.remove(waiter);
+                    dispatch();
+                    if (interrupted) {
+                        throw new InterruptedException();
+                    }
+                    return false;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt(); // granted anyway, keep the lock and the status
+        return true;
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    // Parks until another thread hands over the lock. Uninterruptible like the other RWLocks,
+    // the interrupt status is restored once the lock is held.
+    private void awaitGrant(Waiter waiter) {
+        boolean wasInterrupted = false;
+        while (!waiter.granted) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                wasInterrupted = true; // keep waiting, preserve status
+            }
+        }
+        if (wasInterrupted) Thread.currentThread().interrupt();
+    }
+
+    static final class Waiter {
+        final Thread thread;
+        volatile boolean granted = false;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+
+        void grant() {
+            granted = true;
+            LockSupport.unpark(thread);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.smdaziz;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// BRAVO (Biased Locking for Reader-Writer Locks, Dice & Kogan) wrapped around any RWLock.
+// While the lock is read-biased a reader CASes its thread id into a slot picked by thread hash and never
+// touches the underlying lock. Slots are padded apart so readers on different cores write different cache lines.
+// A writer takes the underlying write lock, revokes the bias and waits until every slot is empty.
+// Revocation is expensive, so the bias stays off for a multiple of the time the last revocation took.
+class RWReaderBiasedLock implements RWLock {
+    // 16 longs = 128 bytes per slot, covers the cache line plus the adjacent-line prefetcher
+    private static final int PAD = 16;
+    // BRAVO's N: bias stays disabled for N times the revocation cost, bounding writer slowdown to ~1/N
+    private static final long INHIBIT_MULTIPLIER = 9;
+    private static final long NO_TIMEOUT = -1;
+
+    private final RWLock underlying;
+    private final AtomicLongArray readerSlots;
+    private final int slotBits;
+    private volatile boolean readBias = true;
+    private volatile long inhibitUntil = 0;
+
+    public RWReaderBiasedLock(RWLock underlying) {
+        this(underlying, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public RWReaderBiasedLock(RWLock underlying, int slots) {
+        this.underlying = underlying;
+        // Round up to a power of two so the hash can simply be shifted into range
+        this.slotBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, slots) - 1));
+        this.readerSlots = new AtomicLongArray((1 << slotBits) * PAD);
+    }
+
+    public void beginRead() {
+        if (tryFastRead()) {
+            return;
+        }
+        underlying.beginRead();
+        slowReadAcquired();
+    }
+
+    public void endRead() {
+        int slot = slotIndex();
+        if (readerSlots.get(slot) == Thread.currentThread().getId()) {
+            readerSlots.set(slot, 0);
+        } else {
+            underlying.endRead();
+        }
+    }
+
+    public void beginWrite() {
+        underlying.beginWrite();
+        if (readBias) {
+            revokeBias();
+        }
+    }
+
+    public void endWrite() {
+        underlying.endWrite();
+    }
+
+    // The upgrader holds a read share of the underlying lock, which keeps writers out; fast-path readers
+    // coexist with it until upgrade(), which then has to drain them just like beginWrite() does.
+    public void beginUpgradeableRead() {
+        underlying.beginUpgradeableRead();
+    }
+
+    public void endUpgradeableRead() {
+        underlying.endUpgradeableRead();
+    }
+
+    public void upgrade() {
+        underlying.upgrade();
+        if (readBias) {
+            revokeBias();
+        }
+    }
+
+    // The bias stays revoked, the downgraded reader simply holds the underlying read lock
+    public void downgrade() {
+        underlying.downgrade();
+    }
+
+    // Writers bump the underlying version, fast-path readers don't, so stamps can come straight from it
+    public long tryOptimisticRead() {
+        return underlying.tryOptimisticRead();
+    }
+
+    public boolean validate(long stamp) {
+        return underlying.validate(stamp);
+    }
+
+    public boolean tryBeginRead() {
+        if (tryFastRead()) {
+            return true;
+        }
+        if (!underlying.tryBeginRead()) {
+            return false;
+        }
+        slowReadAcquired();
+        return true;
+    }
+
+    // Never waits for revocation: gives the write lock back if a fast-path reader is still inside.
+    // The bias stays revoked, so the next attempt only has to wait for readers of the underlying lock.
+    public boolean tryBeginWrite() {
+        if (!underlying.tryBeginWrite()) {
+            return false;
+        }
+        if (readBias && !revokeBias(0, false)) {
+            underlying.endWrite();
+            return false;
+        }
+        return true;
+    }
+
+    public boolean tryBeginRead(long timeout, TimeUnit unit) throws InterruptedException {
+        if (tryFastRead()) {
+            return true;
+        }
+        if (!underlying.tryBeginRead(timeout, unit)) {
+            return false;
+        }
+        slowReadAcquired();
+        return true;
+    }
+
+    // The timeout and interrupts cover both the underlying acquire and the wait for fast-path readers
+    // to drain, which lasts as long as the longest fast-path read currently in progress
+    public boolean tryBeginWrite(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!underlying.tryBeginWrite(timeout, unit)) {
+            return false;
+        }
+        if (readBias && !revokeBias(Math.max(0, deadline - System.nanoTime()), true)) {
+            underlying.endWrite();
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    public void beginReadInterruptibly() throws InterruptedException {
+        if (tryFastRead()) {
+            return;
+        }
+        underlying.beginReadInterruptibly();
+        slowReadAcquired();
+    }
+
+    public void beginWriteInterruptibly() throws InterruptedException {
+        underlying.beginWriteInterruptibly();
+        if (readBias && !revokeBias(NO_TIMEOUT, true)) {
+            underlying.endWrite();
+            Thread.interrupted();
+            throw new InterruptedException();
+        }
+    }
+
+    private boolean tryFastRead() {
+        if (readBias) {
+            int slot = slotIndex();
+            long threadId = Thread.currentThread().getId();
+            if (readerSlots.compareAndSet(slot, 0, threadId)) {
+                // Re-check after publishing: a writer that revoked in between may already be past our slot
+                if (readBias) {
+                    return true;
+                }
+                readerSlots.set(slot, 0);
+            }
+            // Slot taken by a colliding thread, or bias revoked: fall through to the underlying lock
+        }
+        return false;
+    }
+
+    private void slowReadAcquired() {
+        if (!readBias && System.nanoTime() >= inhibitUntil) {
+            readBias = true; // safe: we hold the read lock, so no writer is between revoke and endWrite
+        }
+    }
+
+    private void revokeBias() {
+        revokeBias(NO_TIMEOUT, false);
+    }
+
+    // Clears the bias and waits for the fast-path readers to leave. Returns false if a reader is still inside
+    // after nanos (unless NO_TIMEOUT), or once the thread is interrupted if interruptible; the interrupt
+    // status is left set for the caller. The bias stays revoked either way.
+    private boolean revokeBias(long nanos, boolean interruptible) {
+        readBias = false;
+        long start = System.nanoTime();
+        for (int i = 0; i < readerSlots.length(); i += PAD) {
+            int spins = 0;
+            while (readerSlots.get(i) != 0) {
+                if ((nanos != NO_TIMEOUT && System.nanoTime() - start >= nanos)
+                        || (interruptible && Thread.currentThread().isInterrupted())) {
+                    return false;
+                }
+                if (++spins < 1_000) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield(); // the reader may have been descheduled inside its critical section
+                }
+            }
+        }
+        long now = System.nanoTime();
+        inhibitUntil = now + (now - start) * INHIBIT_MULTIPLIER;
+        return true;
+    }
+
+    private int slotIndex() {
+        // Fibonacci hashing spreads sequential thread ids across the table
+        long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> (64 - slotBits)) * PAD;
+    }
+}
@@ -0,0 +1,237 @@
+package io.github.smdaziz;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+
+class RWReaderPreferredLock implements RWLock {
+    private final Object monitor = new Object();
+    private int readers = 0;
+    private boolean isActiveWriter = false;
+    private boolean isActiveUpgrader = false;
+    private boolean isUpgrading = false;
+    // Seqlock-style version: even while no writer is active, odd while one is.
+    // Starts at 2 so that a stamp of 0 can mean "no stamp", like StampedLock.
+    private volatile long version = 2;
+    // nanos argument of the internal waits meaning "wait until granted"
+    private static final long NO_TIMEOUT = -1;
+
+    public void beginRead() {
+        synchronized (monitor) {
+            boolean wasInterrupted = false;
+            // Readers are preferred, except over an upgrader that already waits for them to drain:
+            // it holds the only upgrade slot, so letting it starve would block every writer too
+            while (isActiveWriter || isUpgrading) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    wasInterrupted = true; // keep waiting, preserve status
+                }
+            }
+            readers++;
+            if (wasInterrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    public void endRead() {
+        synchronized (monitor) {
+            readers--;
+            if (readers == 0) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    public void beginWrite() {
+        synchronized (monitor) {
+            boolean wasInterrupted = false;
+            while (readers > 0 || isActiveWriter || isActiveUpgrader) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    wasInterrupted = true; // keep waiting, preserve status
+                }
+            }
+            isActiveWriter = true;
+            version++; // odd: invalidates every outstanding optimistic stamp
+            VarHandle.storeStoreFence(); // the writer's data stores must not move above the version bump
+            if (wasInterrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    public void endWrite() {
+        synchronized (monitor) {
+            version++; // even again, volatile write publishes the writer's data stores
+            isActiveWriter = false;
+            monitor.notifyAll();
+        }
+    }
+
+    public void beginUpgradeableRead() {
+        synchronized (monitor) {
+            boolean wasInterrupted = false;
+            while (isActiveWriter || isActiveUpgrader) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    wasInterrupted = true; // keep waiting, preserve status
+                }
+            }
+            isActiveUpgrader = true;
+            if (wasInterrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    public void endUpgradeableRead() {
+        synchronized (monitor) {
+            isActiveUpgrader = false;
+            monitor.notifyAll();
+        }
+    }
+
+    public void upgrade() {
+        synchronized (monitor) {
+            boolean wasInterrupted = false;
+            isUpgrading = true;
+            try {
+                while (readers > 0) {
+                    try {
+                        monitor.wait();
+                    } catch (InterruptedException e) {
+                        wasInterrupted = true; // keep waiting, preserve status
+                    }
+                }
+            } finally {
+                isUpgrading = false;
+            }
+            // No writer can be active: beginWrite() waits while the upgrade slot is taken
+            isActiveUpgrader = false;
+            isActiveWriter = true;
+            version++;
+            VarHandle.storeStoreFence();
+            if (wasInterrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    public void downgrade() {
+        synchronized (monitor) {
+            version++;
+            isActiveWriter = false;
+            readers++; // taken before anybody else can observe the lock as free
+            monitor.notifyAll();
+        }
+    }
+
+    public boolean tryBeginRead() {
+        synchronized (monitor) {
+            if (isActiveWriter || isUpgrading) {
+                return false;
+            }
+            readers++;
+            return true;
+        }
+    }
+
+    public boolean tryBeginWrite() {
+        synchronized (monitor) {
+            if (readers > 0 || isActiveWriter || isActiveUpgrader) {
+                return false;
+            }
+            acquireWrite();
+            return true;
+        }
+    }
+
+    public boolean tryBeginRead(long timeout, TimeUnit unit) throws InterruptedException {
+        synchronized (monitor) {
+            if (!awaitReadable(Math.max(0, unit.toNanos(timeout)))) {
+                return false;
+            }
+            readers++;
+            return true;
+        }
+    }
+
+    public boolean tryBeginWrite(long timeout, TimeUnit unit) throws InterruptedException {
+        synchronized (monitor) {
+            if (!awaitWritable(Math.max(0, unit.toNanos(timeout)))) {
+                return false;
+            }
+            acquireWrite();
+            return true;
+        }
+    }
+
+    public void beginReadInterruptibly() throws InterruptedException {
+        synchronized (monitor) {
+            awaitReadable(NO_TIMEOUT);
+            readers++;
+        }
+    }
+
+    public void beginWriteInterruptibly() throws InterruptedException {
+        synchronized (monitor) {
+            awaitWritable(NO_TIMEOUT);
+            acquireWrite();
+        }
+    }
+
+    public long tryOptimisticRead() {
+        long stamp = version;
+        return (stamp & 1) == 0 ? stamp : 0;
+    }
+
+    public boolean validate(long stamp) {
+        VarHandle.acquireFence(); // the caller's data loads must complete before version is re-read
+        return stamp != 0 && stamp == version;
+    }
+
+    private void acquireWrite() {
+        isActiveWriter = true;
+        version++;
+        VarHandle.storeStoreFence();
+    }
+
+    // Interruptible waits for the timed and interruptible acquires. Caller holds the monitor.
+    // A waiting writer changes no state here, so giving up needs no cleanup.
+    private boolean awaitReadable(long nanos) throws InterruptedException {
+        checkInterrupted();
+        long deadline = System.nanoTime() + nanos;
+        while (isActiveWriter || isUpgrading) {
+            if (!awaitUntil(deadline, nanos)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean awaitWritable(long nanos) throws InterruptedException {
+        checkInterrupted();
+        long deadline = System.nanoTime() + nanos;
+        while (readers > 0 || isActiveWriter || isActiveUpgrader) {
+            if (!awaitUntil(deadline, nanos)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // One wait on the monitor; false once the deadline has passed
+    private boolean awaitUntil(long deadline, long nanos) throws InterruptedException {
+        if (nanos == NO_TIMEOUT) {
+            monitor.wait();
+            return true;
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(monitor, remaining);
+        return true;
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.smdaziz;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Goal: Make read-lock throughput scale with the number of cores.
+// Every reader of RWReaderPreferredLock/RWWriterPreferredLock (and even ReentrantReadWriteLock) writes one
+// shared word, so that cache line bounces between all cores. RWReaderBiasedLock (BRAVO-style) lets readers
+// publish themselves in a per-slot table instead, and only writers pay for scanning it.
+public class ReaderBiasedLockDemo {
+    private static volatile int blackhole; // keeps the JIT from dropping the reads
+
+    public static void main(String[] args) {
+        int maxReaders = Runtime.getRuntime().availableProcessors();
+        System.out.println("Read acquisitions per second, one writer every 10 ms");
+        for (int readers = 1; readers <= maxReaders; readers *= 2) {
+            long plain = measure(RWReaderPreferredLock::new, readers);
+            long biased = measure(() -> new RWReaderBiasedLock(new RWReaderPreferredLock()), readers);
+            System.out.println(readers + " reader(s): RWReaderPreferredLock=" + plain + "/s, RWReaderBiasedLock=" + biased + "/s");
+        }
+    }
+
+    private static long measure(Supplier<RWLock> lockFactory, int numReaders) {
+        RWLock lock = lockFactory.get();
+        LongAdder reads = new LongAdder();
+        int[] sharedValue = new int[1];
+        long durationNanos = 500_000_000L;
+        long deadline = System.nanoTime() + durationNanos;
+        Thread[] readers = new Thread[numReaders];
+        for (int i = 0; i < numReaders; i++) {
+            readers[i] = new Thread(() -> {
+                long count = 0;
+                int sink = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int j = 0; j < 1_000; j++) {
+                        lock.beginRead();
+                        try {
+                            sink += sharedValue[0];
+                        } finally {
+                            lock.endRead();
+                        }
+                    }
+                    count += 1_000;
+                }
+                blackhole = sink;
+                reads.add(count);
+            }, "Reader-" + (i + 1));
+            readers[i].start();
+        }
+        Thread writer = new Thread(() -> {
+            while (System.nanoTime() < deadline) {
+                lock.beginWrite();
+                try {
+                    sharedValue[0]++;
+                } finally {
+                    lock.endWrite();
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }, "Writer-1");
+        writer.start();
+        try {
+            for (Thread t : readers) {
+                t.join();
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return reads.sum() * 1_000_000_000L / durationNanos;
+    }
+}
@@ -0,0 +1,256 @@
+package io.github.smdaziz;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Goal: Pick a readers-writers lock from data instead of from RWBufferReader/RWBufferWriter println output.
+// Drives every lock strategy across read:write ratios and thread counts, JMH-style: warm-up iterations first,
+// then timed measurement iterations on fresh threads that run flat out. Each op is beginRead()/endRead() or
+// beginWrite()/endWrite() around a HashMap lookup or put, called directly rather than through ConfigStore so
+// that only the lock and the map are measured.
+// Reports ops/s measured on the bare locks, plus writer wait percentiles and starvation (acquisitions that waited
+// longer than STARVATION_NANOS) from a separate pass through InstrumentedRWLock, whose shared counters would
+// otherwise flatten the read scalability being measured. "stalled" counts threads that finished a measurement
+// iteration with no ops.
+// Usage: ReadersWritersBenchmark [threads=1,2,4,8,16,32,64] [readPercents=100,95,90,80,50] [measureMillis=200]
+public class ReadersWritersBenchmark {
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASUREMENT_ITERATIONS = 3;
+    private static final int KEYS = 1_000;
+    private static final long STARVATION_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // Built once, so the timed loop allocates nothing
+    private static final String[] KEY_NAMES = new String[KEYS];
+    private static final String[] VALUES = new String[KEYS];
+
+    static {
+        for (int i = 0; i < KEYS; i++) {
+            KEY_NAMES[i] = "Key-" + i;
+            VALUES[i] = "Value-" + i;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        int[] threadCounts = parse(args, 0, "1,2,4,8,16,32,64");
+        int[] readPercents = parse(args, 1, "100,95,90,80,50");
+        long measureMillis = args.length > 2 ? Long.parseLong(args[2]) : 200;
+
+        Map<String, Supplier<RWLock>> locks = new LinkedHashMap<>();
+        locks.put("ReaderPreferred", RWReaderPreferredLock::new);
+        locks.put("WriterPreferred", RWWriterPreferredLock::new);
+        locks.put("PhaseFair", RWPhaseFairLock::new);
+        locks.put("ReaderBiased(WP)", () -> new RWReaderBiasedLock(new RWWriterPreferredLock()));
+        locks.put("RRWL-unfair", () -> new JdkReadWriteLockAdapter(false));
+        locks.put("RRWL-fair", () -> new JdkReadWriteLockAdapter(true));
+
+        System.out.printf("%-17s %7s %6s %14s %10s %10s %10s %9s %7s%n",
+                "lock", "threads", "read%", "ops/s", "w-p50(us)", "w-p99(us)", "w-max(us)", "starved", "stalled");
+        for (int readPercent : readPercents) {
+            for (int threads : threadCounts) {
+                for (Map.Entry<String, Supplier<RWLock>> lock : locks.entrySet()) {
+                    System.out.println(run(lock.getKey(), lock.getValue(), threads, readPercent, measureMillis));
+                }
+            }
+        }
+        System.out.println("Main thread finished.");
+    }
+
+    private static String run(String name, Supplier<RWLock> lockFactory, int threads, int readPercent, long measureMillis) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(lockFactory.get(), newMap(), threads, readPercent, measureMillis);
+        }
+        RWLock bare = lockFactory.get();
+        Map<String, String> map = newMap();
+        double[] opsPerSecond = new double[MEASUREMENT_ITERATIONS];
+        long stalledThreads = 0;
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            IterationResult result = iteration(bare, map, threads, readPercent, measureMillis);
+            opsPerSecond[i] = result.opsPerSecond;
+            stalledThreads += result.stalledThreads;
+        }
+        double mean = Arrays.stream(opsPerSecond).average().orElse(0);
+        double error = Arrays.stream(opsPerSecond).map(x -> Math.abs(x - mean)).max().orElse(0);
+        // Latency pass, not counted in ops/s
+        InstrumentedRWLock lock = new InstrumentedRWLock(name, lockFactory.get(), 1, TimeUnit.HOURS);
+        iteration(lock, newMap(), threads, readPercent, measureMillis);
+        LatencyHistogram writeWait = lock.writeWait();
+        long starved = writeWait.countAbove(STARVATION_NANOS) + lock.readWait().countAbove(STARVATION_NANOS);
+        return String.format("%-17s %7d %6d %,9.0f+-%3.0f%% %10d %10d %10d %9d %7d", name, threads, readPercent,
+                mean, mean == 0 ? 0 : 100 * error / mean, writeWait.percentile(50) / 1_000,
+                writeWait.percentile(99) / 1_000, writeWait.max() / 1_000, starved, stalledThreads);
+    }
+
+    private static Map<String, String> newMap() {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            map.put(KEY_NAMES[i], VALUES[i]);
+        }
+        return map;
+    }
+
+    // One timed iteration: all threads are released together and run until the deadline
+    private static IterationResult iteration(RWLock lock, Map<String, String> map, int threads, int readPercent,
+                                             long measureMillis) {
+        CountDownLatch startGate = new CountDownLatch(1);
+        long[] ops = new long[threads];
+        AtomicLong deadline = new AtomicLong(Long.MAX_VALUE);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            int id = i;
+            workers[i] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                try {
+                    startGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long end = deadline.get();
+                // Check the clock every 64 ops only, nanoTime() would otherwise dominate the uncontended case
+                while ((count & 63) != 0 || System.nanoTime() < end) {
+                    int index = random.nextInt(KEYS);
+                    String key = KEY_NAMES[index];
+                    if (random.nextInt(100) < readPercent) {
+                        lock.beginRead();
+                        try {
+                            map.get(key);
+                        } finally {
+                            lock.endRead();
+                        }
+                    } else {
+                        lock.beginWrite();
+                        try {
+                            map.put(key, VALUES[(index + (int) count) % KEYS]);
+                        } finally {
+                            lock.endWrite();
+                        }
+                    }
+                    count++;
+                }
+                ops[id] = count;
+            }, "Bench-" + (i + 1));
+            workers[i].start();
+        }
+        long start = System.nanoTime();
+        deadline.set(start + TimeUnit.MILLISECONDS.toNanos(measureMillis));
+        startGate.countDown();
+        try {
+            for (Thread t : workers) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsed = System.nanoTime() - start;
+        long total = 0;
+        int stalled = 0;
+        for (long n : ops) {
+            total += n;
+            if (n == 0) {
+                stalled++;
+            }
+        }
+        return new IterationResult(total * 1e9 / elapsed, stalled);
+    }
+
+    private static int[] parse(String[] args, int index, String defaults) {
+        String value = args.length > index ? args[index] : defaults;
+        return Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+    }
+
+    private static final class IterationResult {
+        final double opsPerSecond;
+        final int stalledThreads;
+
+        IterationResult(double opsPerSecond, int stalledThreads) {
+            this.opsPerSecond = opsPerSecond;
+            this.stalledThreads = stalledThreads;
+        }
+    }
+}
+
+// ReentrantReadWriteLock behind the RWLock interface, so it can be compared with the custom locks (and back a ConfigStore).
+// It has no stamps: tryOptimisticRead() returns 0, sending every ConfigStore.get() to the read lock.
+// It cannot upgrade a read lock in place either, so the upgradeable read is exclusive here: it takes the write lock,
+// upgrade() has nothing left to do, and downgrade() works the usual way from either.
+class JdkReadWriteLockAdapter implements RWLock {
+    private final ReentrantReadWriteLock lock;
+
+    public JdkReadWriteLockAdapter(boolean fair) {
+        this.lock = new ReentrantReadWriteLock(fair);
+    }
+
+    public void beginRead() {
+        lock.readLock().lock();
+    }
+
+    public void endRead() {
+        lock.readLock().unlock();
+    }
+
+    public void beginWrite() {
+        lock.writeLock().lock();
+    }
+
+    public void endWrite() {
+        lock.writeLock().unlock();
+    }
+
+    public long tryOptimisticRead() {
+        return 0;
+    }
+
+    public boolean validate(long stamp) {
+        return false;
+    }
+
+    public void beginUpgradeableRead() {
+        lock.writeLock().lock();
+    }
+
+    public void endUpgradeableRead() {
+        lock.writeLock().unlock();
+    }
+
+    public void upgrade() {
+        // Already holding the write lock since beginUpgradeableRead()
+    }
+
+    public void downgrade() {
+        lock.readLock().lock();
+        lock.writeLock().unlock();
+    }
+
+    public boolean tryBeginRead() {
+        return lock.readLock().tryLock();
+    }
+
+    public boolean tryBeginWrite() {
+        return lock.writeLock().tryLock();
+    }
+
+    public boolean tryBeginRead(long timeout, TimeUnit unit) throws InterruptedException {
+        return lock.readLock().tryLock(timeout, unit);
+    }
+
+    public boolean tryBeginWrite(long timeout, TimeUnit unit) throws InterruptedException {
+        return lock.writeLock().tryLock(timeout, unit);
+    }
+
+    public void beginReadInterruptibly() throws InterruptedException {
+        lock.readLock().lockInterruptibly();
+    }
+
+    public void beginWriteInterruptibly() throws InterruptedException {
+        lock.writeLock().lockInterruptibly();
+    }
+}
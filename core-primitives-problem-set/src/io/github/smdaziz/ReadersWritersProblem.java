@@ -1,8 +1,5 @@
 package io.github.smdaziz;
 
-import java.util.HashMap;
-import java.util.Map;
-
 // Goal: Create a ReaderWriter problem (2 writers, many readers). Ensure mutual exclusion correctly.
 
 public class ReadersWritersProblem {
@@ -64,173 +61,6 @@ public class ReadersWritersProblem {
     }
 }
 
-interface RWLock {
-    void beginRead();
-    void endRead();
-    void beginWrite();
-    void endWrite();
-}
-
-class RWReaderPreferredLock implements RWLock {
-    private final Object monitor = new Object();
-    private int readers = 0;
-    private boolean isActiveWriter = false;
-
-    public void beginRead() {
-        synchronized (monitor) {
-            boolean wasInterrupted = false;
-            while (isActiveWriter) {
-                try {
-                    monitor.wait();
-                } catch (InterruptedException e) {
-                    wasInterrupted = true; // keep waiting, preserve status
-                }
-            }
-            readers++;
-            if (wasInterrupted) Thread.currentThread().interrupt();
-        }
-    }
-
-    public void endRead() {
-        synchronized (monitor) {
-            readers--;
-            if (readers == 0) {
-                monitor.notifyAll();
-            }
-        }
-    }
-
-    public void beginWrite() {
-        synchronized (monitor) {
-            boolean wasInterrupted = false;
-            while (readers > 0 || isActiveWriter) {
-                try {
-                    monitor.wait();
-                } catch (InterruptedException e) {
-                    wasInterrupted = true; // keep waiting, preserve status
-                }
-            }
-            isActiveWriter = true;
-            if (wasInterrupted) Thread.currentThread().interrupt();
-        }
-    }
-
-    public void endWrite() {
-        synchronized (monitor) {
-            isActiveWriter = false;
-            monitor.notifyAll();
-        }
-    }
-}
-
-class RWWriterPreferredLock implements RWLock {
-    private final Object monitor = new Object();
-    private int readers = 0;
-    private int waitingWriters = 0;
-    private boolean isActiveWriter = false;
-
-    public void beginRead() {
-        synchronized (monitor) {
-            boolean wasInterrupted = false;
-            while (isActiveWriter || waitingWriters > 0) {
-                try {
-                    monitor.wait();
-                } catch (InterruptedException e) {
-                    wasInterrupted = true; // keep waiting, preserve status
-                }
-            }
-            readers++;
-            if (wasInterrupted) Thread.currentThread().interrupt();
-        }
-    }
-
-    public void endRead() {
-        synchronized (monitor) {
-            readers--;
-            if (readers == 0) {
-                monitor.notifyAll();
-            }
-        }
-    }
-
-    public void beginWrite() {
-        synchronized (monitor) {
-            waitingWriters++;
-            boolean wasInterrupted = false;
-            try {
-                while (readers > 0 || isActiveWriter) {
-                    try {
-                        monitor.wait();
-                    } catch (InterruptedException e) {
-                        wasInterrupted = true; // keep waiting, preserve status
-                    }
-                }
-                isActiveWriter = true;
-                if (wasInterrupted) Thread.currentThread().interrupt();
-            } finally {
-                waitingWriters--;
-            }
-        }
-    }
-
-    public void endWrite() {
-        synchronized (monitor) {
-            isActiveWriter = false;
-            monitor.notifyAll();
-        }
-    }
-}
-
-class ConfigStore {
-    private final Map<String, String> data;
-    private final RWLock lock;
-
-    public ConfigStore(RWLock lock) {
-        this.data = new HashMap<>();
-        this.lock = lock;
-    }
-
-    public void add(String key, String value) {
-        lock.beginWrite();
-        try {
-            data.put(key, value);
-        } finally {
-            lock.endWrite();
-        }
-    }
-
-    public String get(String key) {
-        lock.beginRead();
-        try {
-            return data.get(key);
-        } finally {
-            lock.endRead();
-        }
-    }
-}
-
-class RWBufferWriter implements Runnable {
-    private final ConfigStore configStore;
-
-    public RWBufferWriter(ConfigStore configStore) {
-        this.configStore = configStore;
-    }
-
-    @Override
-    public void run() {
-        for (int i = 1; i <= 10; i++) {
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-            System.out.println(Thread.currentThread().getName() + " produced { \"Key-" + i + "\", \"Value-" + i + "\"}");
-            configStore.add("Key-" + i, "Value-" + i);
-        }
-    }
-}
-
 class RWBufferReader implements Runnable {
     private final ConfigStore configStore;
 
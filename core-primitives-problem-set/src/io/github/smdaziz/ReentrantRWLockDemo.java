@@ -0,0 +1,429 @@
+package io.github.smdaziz;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+
+// Goal: Let a thread take a read lock it already holds, even while a writer is waiting.
+// RWWriterPreferredLock blocks new readers as soon as a writer waits, and it cannot tell a new reader from
+// one that already holds the lock, so a nested beginRead() waits for a writer that waits for it: deadlock.
+// ReentrantRWLock tracks holds per thread and only goes to the underlying lock for the outermost acquire.
+// Like ReentrantReadWriteLock, the common re-acquire is served from a firstReader slot or the last reader's
+// cached counter, without a ThreadLocal lookup.
+public class ReentrantRWLockDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        System.out.println("Plain RWWriterPreferredLock, nested read: " + nestedReadUnderWaitingWriter(new RWWriterPreferredLock()));
+        System.out.println("ReentrantRWLock, nested read: " + nestedReadUnderWaitingWriter(new ReentrantRWLock(new RWWriterPreferredLock())));
+
+        ReentrantRWLock lock = new ReentrantRWLock(new RWWriterPreferredLock());
+        lock.beginWrite();
+        lock.beginRead(); // reads under the write lock are allowed...
+        lock.endWrite();  // ...and releasing the write lock then downgrades to the read lock
+        System.out.println("After endWrite: readHolds=" + lock.getReadHoldCount() + ", writeHolds=" + lock.getWriteHoldCount());
+        try {
+            lock.beginWrite();
+        } catch (IllegalMonitorStateException e) {
+            System.out.println("Read -> write refused: " + e.getMessage());
+        }
+        lock.endRead();
+
+        // Nested re-acquire cost on the firstReader slot and on the cached counter of a second reader
+        lock.beginRead();
+        System.out.println("First reader:  " + nestedReadNanos(lock) + " ns per nested read");
+        Thread second = new Thread(() -> {
+            lock.beginRead();
+            System.out.println("Second reader: " + nestedReadNanos(lock) + " ns per nested read");
+            lock.endRead();
+        }, "Reader-2");
+        second.start();
+        try {
+            second.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.endRead();
+        System.out.println("Main thread finished.");
+    }
+
+    // Holds a read lock, lets a writer queue up, then tries to read again with a 200 ms budget
+    private static String nestedReadUnderWaitingWriter(RWLock lock) {
+        lock.beginRead();
+        Thread writer = new Thread(() -> {
+            lock.beginWrite();
+            lock.endWrite();
+        }, "Writer-1");
+        writer.start();
+        String result;
+        try {
+            Thread.sleep(50); // writer is now waiting for us
+            if (lock.tryBeginRead(200, TimeUnit.MILLISECONDS)) {
+                lock.endRead();
+                result = "acquired";
+            } else {
+                result = "timed out (would deadlock with beginRead)";
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = "interrupted";
+        } finally {
+            lock.endRead();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private static long nestedReadNanos(RWLock lock) {
+        int iterations = 5_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            lock.beginRead();
+            lock.endRead();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+}
+
+// Reentrancy decorator for any RWLock. The underlying lock sees one read hold per reading thread, taken on
+// its outermost beginRead(), and one write hold. Rules, as in ReentrantReadWriteLock:
+// - read and write holds nest; reads taken while holding the write lock are counted, and if the last
+//   endWrite() leaves such reads behind, the lock is downgraded to a read lock instead of released
+// - a reader cannot become a writer with beginWrite() (that deadlocks once two readers try it), it throws
+//   IllegalMonitorStateException; use beginUpgradeableRead()/upgrade() instead
+// - upgradeable reads don't nest, but plain reads nest inside them
+// Per-thread read counts live in three places, cheapest first: the firstReader slot (one thread at a time),
+// the counter of the last thread that used the ThreadLocal, and the ThreadLocal itself. localReaders counts the
+// threads with a ThreadLocal count above 0; while it is 0, a thread that isn't firstReader, writer or upgrader
+// knows it holds no read without looking, so an uncontended first read never touches the ThreadLocal.
+class ReentrantRWLock implements RWLock {
+    private static final VarHandle FIRST_READER;
+    private static final VarHandle LOCAL_READERS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            FIRST_READER = lookup.findVarHandle(ReentrantRWLock.class, "firstReader", Thread.class);
+            LOCAL_READERS = lookup.findVarHandle(ReentrantRWLock.class, "localReaders", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final RWLock delegate;
+    // Claimed by CAS on a thread's outermost read, cleared when its count drops to 0.
+    // firstReaderHoldCount is only touched by the thread in firstReader.
+    private volatile Thread firstReader;
+    private int firstReaderHoldCount;
+    // Benign race like ReentrantReadWriteLock's: a reader only trusts it if the thread id is its own
+    private HoldCounter cachedHoldCounter;
+    private final ThreadLocal<HoldCounter> readHolds = ThreadLocal.withInitial(HoldCounter::new);
+    // Only ever includes the current thread's own contribution when it has one, so reading 0 is conclusive
+    private volatile int localReaders;
+    // Written only by the owning thread and only compared against the current thread, so no volatile needed:
+    // a thread always sees its own writes, and never finds itself in a value another thread wrote
+    private Thread writeOwner;
+    private int writeHolds;
+    private Thread upgrader;
+
+    public ReentrantRWLock(RWLock delegate) {
+        this.delegate = delegate;
+    }
+
+    public void beginRead() {
+        if (reenterRead()) {
+            return;
+        }
+        delegate.beginRead();
+        addReadHold(Thread.currentThread());
+    }
+
+    public void endRead() {
+        Thread me = Thread.currentThread();
+        if (firstReader == me) {
+            if (--firstReaderHoldCount == 0) {
+                firstReader = null;
+                releaseRead(me);
+            }
+            return;
+        }
+        if (localReaders == 0) {
+            throw new IllegalMonitorStateException("endRead() without a matching beginRead()");
+        }
+        HoldCounter rh = cachedHoldCounter;
+        if (rh == null || rh.tid != me.getId()) {
+            rh = readHolds.get();
+        }
+        if (rh.count <= 0) {
+            readHolds.remove();
+            throw new IllegalMonitorStateException("endRead() without a matching beginRead()");
+        }
+        if (--rh.count == 0) {
+            LOCAL_READERS.getAndAdd(this, -1);
+            readHolds.remove();
+            releaseRead(me);
+        }
+    }
+
+    public void beginWrite() {
+        if (reenterWrite()) {
+            return;
+        }
+        delegate.beginWrite();
+        writeAcquired();
+    }
+
+    public void endWrite() {
+        Thread me = Thread.currentThread();
+        if (writeOwner != me) {
+            throw new IllegalMonitorStateException("endWrite() by a thread that does not hold the write lock");
+        }
+        if (--writeHolds > 0) {
+            return;
+        }
+        writeOwner = null;
+        if (readHoldCount(me) > 0) {
+            delegate.downgrade(); // reads taken under the write lock keep a read lock of their own
+        } else {
+            delegate.endWrite();
+        }
+    }
+
+    public long tryOptimisticRead() {
+        return delegate.tryOptimisticRead();
+    }
+
+    public boolean validate(long stamp) {
+        return delegate.validate(stamp);
+    }
+
+    public void beginUpgradeableRead() {
+        Thread me = Thread.currentThread();
+        if (upgrader == me || writeOwner == me || readHoldCount(me) > 0) {
+            throw new IllegalMonitorStateException("beginUpgradeableRead() while already holding the lock");
+        }
+        delegate.beginUpgradeableRead();
+        upgrader = me;
+    }
+
+    public void endUpgradeableRead() {
+        Thread me = Thread.currentThread();
+        if (upgrader != me) {
+            throw new IllegalMonitorStateException("endUpgradeableRead() without a matching beginUpgradeableRead()");
+        }
+        if (readHoldCount(me) > 0) {
+            throw new IllegalMonitorStateException("endUpgradeableRead() with nested reads still held");
+        }
+        upgrader = null;
+        delegate.endUpgradeableRead();
+    }
+
+    // Nested reads held inside the upgradeable read become reads under the write lock
+    public void upgrade() {
+        if (upgrader != Thread.currentThread()) {
+            throw new IllegalMonitorStateException("upgrade() without an upgradeable read");
+        }
+        delegate.upgrade();
+        upgrader = null;
+        writeAcquired();
+    }
+
+    public void downgrade() {
+        Thread me = Thread.currentThread();
+        if (writeOwner != me || writeHolds != 1) {
+            throw new IllegalMonitorStateException("downgrade() needs exactly one write hold");
+        }
+        writeHolds = 0;
+        writeOwner = null;
+        if (readHoldCount(me) > 0) {
+            delegate.downgrade();
+            reenterRead();
+        } else {
+            delegate.downgrade();
+            addReadHold(me);
+        }
+    }
+
+    public boolean tryBeginRead() {
+        if (reenterRead()) {
+            return true;
+        }
+        if (!delegate.tryBeginRead()) {
+            return false;
+        }
+        addReadHold(Thread.currentThread());
+        return true;
+    }
+
+    public boolean tryBeginWrite() {
+        if (reenterWrite()) {
+            return true;
+        }
+        if (!delegate.tryBeginWrite()) {
+            return false;
+        }
+        writeAcquired();
+        return true;
+    }
+
+    public boolean tryBeginRead(long timeout, TimeUnit unit) throws InterruptedException {
+        if (reenterRead()) {
+            return true;
+        }
+        if (!delegate.tryBeginRead(timeout, unit)) {
+            return false;
+        }
+        addReadHold(Thread.currentThread());
+        return true;
+    }
+
+    public boolean tryBeginWrite(long timeout, TimeUnit unit) throws InterruptedException {
+        if (reenterWrite()) {
+            return true;
+        }
+        if (!delegate.tryBeginWrite(timeout, unit)) {
+            return false;
+        }
+        writeAcquired();
+        return true;
+    }
+
+    public void beginReadInterruptibly() throws InterruptedException {
+        if (reenterRead()) {
+            return;
+        }
+        delegate.beginReadInterruptibly();
+        addReadHold(Thread.currentThread());
+    }
+
+    public void beginWriteInterruptibly() throws InterruptedException {
+        if (reenterWrite()) {
+            return;
+        }
+        delegate.beginWriteInterruptibly();
+        writeAcquired();
+    }
+
+    // Read holds of the current thread, including those taken under the write lock
+    public int getReadHoldCount() {
+        return readHoldCount(Thread.currentThread());
+    }
+
+    public int getWriteHoldCount() {
+        return writeOwner == Thread.currentThread() ? writeHolds : 0;
+    }
+
+    // Counts a read that needs no underlying acquire: the thread already reads, writes or holds the upgrade slot
+    private boolean reenterRead() {
+        Thread me = Thread.currentThread();
+        if (firstReader == me) {
+            firstReaderHoldCount++;
+            return true;
+        }
+        if (writeOwner == me || upgrader == me) {
+            countRead(holdCounter(me));
+            return true;
+        }
+        if (localReaders == 0) {
+            return false; // no thread holds a ThreadLocal count, so neither do we
+        }
+        HoldCounter rh = cachedHoldCounter;
+        if (rh == null || rh.tid != me.getId()) {
+            rh = readHolds.get();
+            if (rh.count == 0) {
+                readHolds.remove();
+                return false;
+            }
+            cachedHoldCounter = rh;
+        }
+        if (rh.count == 0) {
+            return false;
+        }
+        rh.count++;
+        return true;
+    }
+
+    private boolean reenterWrite() {
+        Thread me = Thread.currentThread();
+        if (writeOwner == me) {
+            writeHolds++;
+            return true;
+        }
+        if (upgrader == me) {
+            throw new IllegalMonitorStateException("beginWrite() while holding the upgradeable read, use upgrade()");
+        }
+        if (readHoldCount(me) > 0) {
+            throw new IllegalMonitorStateException("beginWrite() while holding a read lock would deadlock");
+        }
+        return false;
+    }
+
+    private void writeAcquired() {
+        writeOwner = Thread.currentThread();
+        writeHolds = 1;
+    }
+
+    // First read hold of a thread that now holds the underlying read lock
+    private void addReadHold(Thread me) {
+        if (firstReader == null && FIRST_READER.compareAndSet(this, null, me)) {
+            firstReaderHoldCount = 1;
+            return;
+        }
+        countRead(holdCounter(me));
+    }
+
+    private void countRead(HoldCounter rh) {
+        if (rh.count++ == 0) {
+            LOCAL_READERS.getAndAdd(this, 1);
+        }
+    }
+
+    // Last read hold gone: give the underlying read lock back, unless the reads were taken under our write
+    // lock or upgradeable read, which the underlying lock never saw
+    private void releaseRead(Thread me) {
+        if (writeOwner != me && upgrader != me) {
+            delegate.endRead();
+        }
+    }
+
+    private int readHoldCount(Thread me) {
+        if (firstReader == me) {
+            return firstReaderHoldCount;
+        }
+        if (localReaders == 0) {
+            return 0;
+        }
+        HoldCounter rh = cachedHoldCounter;
+        if (rh != null && rh.tid == me.getId()) {
+            return rh.count;
+        }
+        rh = readHolds.get();
+        int count = rh.count;
+        if (count == 0) {
+            readHolds.remove();
+        }
+        return count;
+    }
+
+    // The current thread's counter, cached for the next lookup. A cached counter whose count dropped to 0 was
+    // removed from the ThreadLocal, so it is put back before being counted up again.
+    private HoldCounter holdCounter(Thread me) {
+        HoldCounter rh = cachedHoldCounter;
+        if (rh == null || rh.tid != me.getId()) {
+            rh = readHolds.get();
+            cachedHoldCounter = rh;
+        } else if (rh.count == 0) {
+            readHolds.set(rh);
+        }
+        return rh;
+    }
+
+    static final class HoldCounter {
+        // Thread id rather than the Thread, so a cached counter doesn't keep a dead thread reachable
+        final long tid = Thread.currentThread().getId();
+        int count;
+    }
+}
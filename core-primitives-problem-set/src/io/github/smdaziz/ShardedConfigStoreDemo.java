@@ -0,0 +1,136 @@
+package io.github.smdaziz;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Goal: A write to "Key-1" should not stall readers of every other key.
+// ConfigStore keeps all keys behind one RWLock. ShardedConfigStore hashes keys to N segments,
+// each segment being a ConfigStore with its own RWLock, so writers only block readers of their own segment.
+public class ShardedConfigStoreDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        ConfigStore single = new ConfigStore(new RWWriterPreferredLock());
+        System.out.println("Single ConfigStore : " + readsWhileWriting(single::add, single::get) + " reads/s of other keys");
+        ShardedConfigStore sharded = new ShardedConfigStore(16, RWWriterPreferredLock::new);
+        System.out.println("ShardedConfigStore : " + readsWhileWriting(sharded::add, sharded::get) + " reads/s of other keys");
+        System.out.println("Sharded size = " + sharded.size());
+        System.out.println("Main thread finished.");
+    }
+
+    private static long readsWhileWriting(BiConsumer<String, String> add, Function<String, String> get) {
+        for (int i = 1; i <= 64; i++) {
+            add.accept("Key-" + i, "Value-" + i);
+        }
+        long deadline = System.currentTimeMillis() + 1_000;
+        LongAdder reads = new LongAdder();
+        Thread writer = new Thread(() -> {
+            int i = 0;
+            while (System.currentTimeMillis() < deadline) {
+                add.accept("Key-1", "Value-1-v" + (i++)); // a hot key that keeps getting rewritten
+            }
+        }, "Writer-1");
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                long count = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    for (int k = 2; k <= 64; k++) {
+                        get.apply("Key-" + k);
+                    }
+                    count += 63;
+                }
+                reads.add(count);
+            }, "Reader-" + (r + 1));
+        }
+        writer.start();
+        for (Thread t : readers) {
+            t.start();
+        }
+        try {
+            writer.join();
+            for (Thread t : readers) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return reads.sum();
+    }
+}
+
+// Lock striping over ConfigStore. The lock implementation is pluggable through the RWLock interface,
+// each segment gets a fresh instance from the factory.
+class ShardedConfigStore {
+    // Largest power of two an int holds, so rounding segmentCount up can't overflow
+    private static final int MAX_SEGMENTS = 1 << 30;
+
+    private final ConfigStore[] segments;
+    private final int mask;
+
+    public ShardedConfigStore(int segmentCount, Supplier<? extends RWLock> lockFactory) {
+        if (segmentCount < 1 || segmentCount > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("segmentCount must be in 1.." + MAX_SEGMENTS);
+        }
+        // Power of two so the segment index is a mask instead of a modulo
+        int size = Integer.highestOneBit(segmentCount);
+        if (size < segmentCount) {
+            size <<= 1;
+        }
+        this.segments = new ConfigStore[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            segments[i] = new ConfigStore(lockFactory.get());
+        }
+    }
+
+    public void add(String key, String value) {
+        segmentFor(key).add(key, value);
+    }
+
+    public String get(String key) {
+        return segmentFor(key).get(key);
+    }
+
+    public String computeIfAbsent(String key, Function<String, String> mappingFunction) {
+        return segmentFor(key).computeIfAbsent(key, mappingFunction);
+    }
+
+    // Versions are per segment: they still only ever increase for a given key, which is all watch() needs
+    public long version(String key) {
+        return segmentFor(key).version(key);
+    }
+
+    public VersionedValue watch(String key, long sinceVersion) throws InterruptedException {
+        return segmentFor(key).watch(key, sinceVersion);
+    }
+
+    // Sum of per-segment sizes. Each segment is counted under its own read lock, so the total is exact
+    // when writers are quiet but is not an atomic snapshot across segments while they are not.
+    public int size() {
+        int size = 0;
+        for (ConfigStore segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    // Visits segment by segment. Entries of one segment are seen consistently, different segments may
+    // be visited at different points in time. Only one segment is read-locked at any moment.
+    public void forEach(BiConsumer<String, String> action) {
+        for (ConfigStore segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    private ConfigStore segmentFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16); // same spreading as HashMap, so keys with similar low bits still split
+        return segments[h & mask];
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.smdaziz;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Goal: Config reads happen millions of times per second, writes a few times per minute.
+// Instead of paying for a lock on every get(), publish an immutable snapshot through a volatile reference:
+// readers do one volatile read plus a HashMap lookup, writers copy, modify and swap the whole map.
+public class SnapshotConfigStoreDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        SnapshotConfigStore configStore = new SnapshotConfigStore();
+        int numReaders = 4;
+        Thread[] readers = new Thread[numReaders];
+        long[] reads = new long[numReaders];
+        long deadline = System.currentTimeMillis() + 2_000;
+        for (int i = 0; i < numReaders; i++) {
+            final int index = i;
+            readers[i] = new Thread(() -> {
+                long count = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    for (int k = 1; k <= 10; k++) {
+                        configStore.get("Key-" + k);
+                        count++;
+                    }
+                }
+                reads[index] = count;
+            }, "Reader-" + (i + 1));
+            readers[i].start();
+        }
+        Thread writer = new Thread(() -> {
+            for (int round = 1; round <= 4; round++) {
+                // One copy of the map for ten keys instead of ten copies
+                SnapshotConfigStore.Batch batch = configStore.batch();
+                for (int k = 1; k <= 10; k++) {
+                    batch.put("Key-" + k, "Value-" + k + "-v" + round);
+                }
+                batch.commit();
+                System.out.println(Thread.currentThread().getName() + " published round " + round
+                        + ", Key-1=" + configStore.get("Key-1"));
+                try {
+                    Thread.sleep(400);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }, "Writer-1");
+        writer.start();
+        try {
+            writer.join();
+            for (Thread t : readers) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long total = 0;
+        for (long r : reads) {
+            total += r;
+        }
+        System.out.println(numReaders + " readers did " + total + " lock-free reads in 2 seconds");
+        System.out.println("Main thread finished.");
+    }
+}
+
+// Copy-on-write config store. get() never blocks and never writes shared memory.
+// Writers serialize on their own monitor and each write copies the map once, so batch writes together.
+class SnapshotConfigStore {
+    private final Object writeMonitor = new Object();
+    // Always an unmodifiable map that is never mutated after publication
+    private volatile Map<String, String> snapshot = Collections.emptyMap();
+
+    public String get(String key) {
+        return snapshot.get(key);
+    }
+
+    // All keys as of one point in time, no copy needed since snapshots are immutable
+    public Map<String, String> snapshot() {
+        return snapshot;
+    }
+
+    public void add(String key, String value) {
+        Objects.requireNonNull(value, "value");
+        update(data -> data.put(key, value));
+    }
+
+    public void remove(String key) {
+        update(data -> data.remove(key));
+    }
+
+    // Applies any number of changes to a private copy and publishes it with a single volatile write
+    public void update(Consumer<Map<String, String>> mutator) {
+        synchronized (writeMonitor) {
+            Map<String, String> next = new HashMap<>(snapshot);
+            mutator.accept(next);
+            snapshot = Collections.unmodifiableMap(next);
+        }
+    }
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    // Collects puts and removes without touching the store, commit() applies them in one copy-and-swap.
+    // Not thread-safe itself, meant to be filled by one writer.
+    class Batch {
+        private final Map<String, String> puts = new LinkedHashMap<>();
+        private final Set<String> removes = new HashSet<>();
+
+        public Batch put(String key, String value) {
+            Objects.requireNonNull(value, "value");
+            removes.remove(key);
+            puts.put(key, value);
+            return this;
+        }
+
+        public Batch remove(String key) {
+            puts.remove(key);
+            removes.add(key);
+            return this;
+        }
+
+        public void commit() {
+            if (puts.isEmpty() && removes.isEmpty()) {
+                return;
+            }
+            update(data -> {
+                data.keySet().removeAll(removes);
+                data.putAll(puts);
+            });
+            puts.clear();
+            removes.clear();
+        }
+    }
+}
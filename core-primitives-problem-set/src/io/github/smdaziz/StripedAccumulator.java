@@ -0,0 +1,210 @@
+package io.github.smdaziz;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+// The striping machinery shared by StripedIntCounter, StripedLongCounter and StripedDoubleCounter
+// (java.util.concurrent.atomic.Striped64, simplified).
+// - No contention: every add is one CAS on base, no cells exist.
+// - A failed CAS on base creates a table of 2 cells; a failed CAS on a cell first moves the thread to
+//   another cell (rehashing its probe), and if that collides too, doubles the table, up to the CPU count.
+// - cellsBusy is a spin lock guarding only table creation and growth, never the adds themselves.
+abstract class StripedAccumulator {
+    private static final int MAX_CELLS = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+    private static final VarHandle BASE;
+    private static final VarHandle CELLS_BUSY;
+    // Each thread's cell index; only consulted once cells exist, rehashed when its cell is contended
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[]{initialProbe()});
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            BASE = lookup.findVarHandle(StripedAccumulator.class, "base", long.class);
+            CELLS_BUSY = lookup.findVarHandle(StripedAccumulator.class, "cellsBusy", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long base;
+    private volatile Cell[] cells;
+    private volatile int cellsBusy;
+
+    // Identity element is 0L for every subclass
+    protected abstract long combine(long current, long x);
+
+    public int cellCount() {
+        Cell[] cs = cells;
+        return cs == null ? 0 : cs.length;
+    }
+
+    public void reset() {
+        base = 0;
+        Cell[] cs = cells;
+        if (cs != null) {
+            for (Cell c : cs) {
+                if (c != null) {
+                    c.value = 0;
+                }
+            }
+        }
+    }
+
+    // Not a snapshot: adds that race with the walk may or may not be included
+    protected final long sumBits() {
+        long sum = base;
+        Cell[] cs = cells;
+        if (cs != null) {
+            for (Cell c : cs) {
+                if (c != null) {
+                    sum = combine(sum, c.value);
+                }
+            }
+        }
+        return sum;
+    }
+
+    // Each cell is swapped to 0 atomically, so no add is lost or counted twice across consecutive calls
+    protected final long sumBitsThenReset() {
+        long sum = (long) BASE.getAndSet(this, 0L);
+        Cell[] cs = cells;
+        if (cs != null) {
+            for (Cell c : cs) {
+                if (c != null) {
+                    sum = combine(sum, c.getAndReset());
+                }
+            }
+        }
+        return sum;
+    }
+
+    protected final void accumulate(long x) {
+        Cell[] cs = cells;
+        if (cs == null) {
+            long b = base;
+            if (BASE.compareAndSet(this, b, combine(b, x))) {
+                return;
+            }
+        } else {
+            Cell c = cs[PROBE.get()[0] & (cs.length - 1)];
+            if (c != null) {
+                long v = c.value;
+                if (c.cas(v, combine(v, x))) {
+                    return;
+                }
+            }
+        }
+        accumulateContended(x);
+    }
+
+    private void accumulateContended(long x) {
+        int[] probe = PROBE.get();
+        boolean collided = false;
+        while (true) {
+            Cell[] cs = cells;
+            if (cs != null) {
+                int n = cs.length;
+                int index = probe[0] & (n - 1);
+                Cell c = cs[index];
+                if (c == null) {
+                    if (cellsBusy == 0 && lockCells()) {
+                        try {
+                            if (cells == cs && cs[index] == null) {
+                                cs[index] = new Cell(x);
+                                return;
+                            }
+                        } finally {
+                            cellsBusy = 0;
+                        }
+                        continue; // table changed under us, retry on the new one
+                    }
+                    collided = false;
+                } else {
+                    long v = c.value;
+                    if (c.cas(v, combine(v, x))) {
+                        return;
+                    }
+                    if (n >= MAX_CELLS || cells != cs) {
+                        collided = false; // table can't grow (or just grew): only rehash
+                    } else if (!collided) {
+                        collided = true; // give rehashing one chance before growing
+                    } else if (cellsBusy == 0 && lockCells()) {
+                        try {
+                            if (cells == cs) {
+                                cells = Arrays.copyOf(cs, n << 1);
+                            }
+                        } finally {
+                            cellsBusy = 0;
+                        }
+                        collided = false;
+                        continue; // retry with the same probe on the bigger table
+                    }
+                }
+                probe[0] = rehash(probe[0]);
+            } else if (cellsBusy == 0 && cells == null && lockCells()) {
+                try {
+                    if (cells == null) {
+                        Cell[] table = new Cell[2];
+                        table[probe[0] & 1] = new Cell(x);
+                        cells = table;
+                        return;
+                    }
+                } finally {
+                    cellsBusy = 0;
+                }
+            } else {
+                long b = base; // someone else is creating the table, try base once more meanwhile
+                if (BASE.compareAndSet(this, b, combine(b, x))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean lockCells() {
+        return CELLS_BUSY.compareAndSet(this, 0, 1);
+    }
+
+    private static int initialProbe() {
+        int h = (int) (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 32);
+        return h == 0 ? 1 : h;
+    }
+
+    // Marsaglia xorshift, never maps a non-zero probe to zero
+    private static int rehash(int probe) {
+        probe ^= probe << 13;
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        return probe;
+    }
+
+    // Padded on both sides so that two cells (or a cell and another hot object) never share a cache line
+    static final class Cell {
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(Cell.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        long p1, p2, p3, p4, p5, p6, p7;
+        volatile long value;
+        long q1, q2, q3, q4, q5, q6, q7;
+
+        Cell(long value) {
+            this.value = value;
+        }
+
+        boolean cas(long expected, long newValue) {
+            return VALUE.compareAndSet(this, expected, newValue);
+        }
+
+        long getAndReset() {
+            return (long) VALUE.getAndSet(this, 0L);
+        }
+    }
+}
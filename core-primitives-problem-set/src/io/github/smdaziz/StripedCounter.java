@@ -0,0 +1,23 @@
+package io.github.smdaziz;
+
+// Drop-in for Problem10's counters: same Runnable shape, but neither loses updates nor serializes the threads
+class StripedCounter implements Runnable {
+    private final StripedIntCounter count = new StripedIntCounter();
+
+    public int getCount() {
+        return count.sum();
+    }
+
+    public int cellCount() {
+        return count.cellCount();
+    }
+
+    public void run() {
+        long start = System.currentTimeMillis();
+        for(int i = 0; i < 1_000_000; i++) {
+            count.increment();
+        }
+        long end = System.currentTimeMillis();
+        System.out.println(Thread.currentThread().getName() + " took " + (end - start) + " ms to complete");
+    }
+}
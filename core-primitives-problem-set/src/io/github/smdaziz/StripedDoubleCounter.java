@@ -0,0 +1,22 @@
+package io.github.smdaziz;
+
+// Cells hold raw double bits (0L is +0.0, so the common reset value works unchanged).
+// Addition order differs between runs, so the last bits of sum() may vary, as with DoubleAdder.
+class StripedDoubleCounter extends StripedAccumulator {
+    public void add(double x) {
+        accumulate(Double.doubleToRawLongBits(x));
+    }
+
+    public double sum() {
+        return Double.longBitsToDouble(sumBits());
+    }
+
+    public double sumThenReset() {
+        return Double.longBitsToDouble(sumBitsThenReset());
+    }
+
+    @Override
+    protected long combine(long current, long x) {
+        return Double.doubleToRawLongBits(Double.longBitsToDouble(current) + Double.longBitsToDouble(x));
+    }
+}
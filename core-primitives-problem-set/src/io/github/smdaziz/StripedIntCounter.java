@@ -0,0 +1,25 @@
+package io.github.smdaziz;
+
+// Wraps around on overflow like an int field would; sums are exact as long as the total fits in an int
+class StripedIntCounter extends StripedAccumulator {
+    public void increment() {
+        accumulate(1);
+    }
+
+    public void add(int x) {
+        accumulate(x);
+    }
+
+    public int sum() {
+        return (int) sumBits();
+    }
+
+    public int sumThenReset() {
+        return (int) sumBitsThenReset();
+    }
+
+    @Override
+    protected long combine(long current, long x) {
+        return current + x;
+    }
+}
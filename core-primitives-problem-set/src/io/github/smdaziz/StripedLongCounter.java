@@ -0,0 +1,24 @@
+package io.github.smdaziz;
+
+class StripedLongCounter extends StripedAccumulator {
+    public void increment() {
+        accumulate(1);
+    }
+
+    public void add(long x) {
+        accumulate(x);
+    }
+
+    public long sum() {
+        return sumBits();
+    }
+
+    public long sumThenReset() {
+        return sumBitsThenReset();
+    }
+
+    @Override
+    protected long combine(long current, long x) {
+        return current + x;
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.smdaziz;
+
+import java.util.concurrent.TimeUnit;
+
+// Goal: Fail fast instead of waiting forever for an RWLock.
+// A slow reader holds the lock; a writer with a 100 ms budget gives up, and because it cleans up after itself
+// the readers queued behind it (RWWriterPreferredLock holds readers back while a writer waits) get in at once.
+public class TimedLockDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        RWLock lock = new RWWriterPreferredLock();
+        Thread slowReader = new Thread(() -> {
+            lock.beginRead();
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.endRead();
+            }
+        }, "SlowReader");
+        Thread writer = new Thread(() -> {
+            try {
+                long start = System.nanoTime();
+                if (lock.tryBeginWrite(100, TimeUnit.MILLISECONDS)) {
+                    lock.endWrite();
+                    System.out.println("Writer got the lock");
+                } else {
+                    System.out.println("Writer gave up after " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Writer");
+        Thread fastReader = new Thread(() -> {
+            try {
+                long start = System.nanoTime();
+                lock.beginReadInterruptibly();
+                try {
+                    System.out.println("Fast reader got in after " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                } finally {
+                    lock.endRead();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "FastReader");
+        try {
+            slowReader.start();
+            Thread.sleep(20);
+            writer.start();
+            Thread.sleep(20);
+            fastReader.start(); // queues behind the waiting writer
+            writer.join();
+            fastReader.join();
+            slowReader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Non-blocking write while free: " + lock.tryBeginWrite());
+        lock.endWrite();
+        System.out.println("Main thread finished.");
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.smdaziz;
+
+class VersionedValue {
+    final String value;
+    final long version;
+
+    VersionedValue(String value, long version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return value + "@v" + version;
+    }
+}
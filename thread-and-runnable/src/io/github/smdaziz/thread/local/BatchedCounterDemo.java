@@ -0,0 +1,177 @@
+package io.github.smdaziz.thread.local;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Goal: Count billions of events per thread at the cost of a plain increment, and still read a total.
+// PrivateCounter keeps a per-thread count but nobody can ever add them up. BatchedCounter gives each thread
+// its own Handle: increment() touches only that handle's field, and the delta is pushed to a shared
+// AtomicLong every batchSize increments, plus by a timer for threads that went quiet.
+// approximate() is cheap and at most batchSize - 1 increments per thread (or one timer period) behind,
+// flush() pushes everything and is exact. A handle whose thread has died is published one last time and
+// dropped, so pools that churn through threads don't pile up handles.
+public class BatchedCounterDemo {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        BatchedCounter counter = new BatchedCounter(4096, 100, TimeUnit.MILLISECONDS);
+        Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                BatchedCounter.Handle handle = counter.newHandle(); // once per thread, outside the hot loop
+                long start = System.nanoTime();
+                for (int j = 0; j < 200_000_000; j++) {
+                    handle.increment();
+                }
+                System.out.println(Thread.currentThread().getName() + " took " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                for (int j = 0; j < 1_000; j++) {
+                    handle.increment(); // fewer than batchSize: only the timer or flush() will publish these
+                }
+            }, "BatchedCounter-" + (i + 1));
+            threads[i].start();
+        }
+        try {
+            while (threads[0].isAlive()) {
+                System.out.println("approximate: " + counter.approximate());
+                Thread.sleep(200);
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("approximate after join: " + counter.approximate());
+        System.out.println("flush (exact): " + counter.flush() + ", handles left: " + counter.handleCount());
+        counter.close();
+        System.out.println("Main thread finished.");
+    }
+}
+
+class BatchedCounter implements AutoCloseable {
+    private final AtomicLong total = new AtomicLong();
+    private final int batchSize;
+    private final Set<Handle> handles = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService timer;
+
+    public BatchedCounter(int batchSize, long maxStale, TimeUnit unit) {
+        this.batchSize = batchSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "BatchedCounter-Publisher");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleAtFixedRate(this::publishAll, maxStale, maxStale, unit);
+    }
+
+    // The calling thread's own handle. Not thread-safe: only that thread may call increment()/add() on it.
+    public Handle newHandle() {
+        Handle handle = new Handle(this, Thread.currentThread());
+        handles.add(handle);
+        return handle;
+    }
+
+    // Sum of what the handles have published so far, a single volatile read
+    public long approximate() {
+        return total.get();
+    }
+
+    // Publishes every handle's outstanding delta. Exact for all increments that happened-before the call,
+    // e.g. those of threads that were joined.
+    public long flush() {
+        publishAll();
+        return total.get();
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    int handleCount() {
+        return handles.size();
+    }
+
+    // Also unlinks the handles of dead threads. Their liveness is checked before publishing: a thread seen
+    // terminated has made its last increment, so that publish is final and nothing is lost by dropping it.
+    private void publishAll() {
+        for (Handle handle : handles) {
+            boolean ownerGone = handle.isOwnerGone();
+            handle.publish();
+            if (ownerGone) {
+                handles.remove(handle);
+            }
+        }
+    }
+
+    static final class Handle {
+        private static final VarHandle COUNT;
+        private static final VarHandle PUBLISHED;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                COUNT = lookup.findVarHandle(Handle.class, "count", long.class);
+                PUBLISHED = lookup.findVarHandle(Handle.class, "published", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        // Only the owner writes it, with an opaque store: as cheap as a plain store, but never torn or
+        // cached in a register, so the publisher thread eventually sees every value. It only ever grows.
+        private long count;
+        // How much of count is already in total. Advanced by CAS, since the owner and the timer both publish.
+        private volatile long published;
+        private final BatchedCounter counter;
+        // Weak, so a handle never keeps a finished thread reachable
+        private final WeakReference<Thread> owner;
+        // Owner-only: count at which the owner publishes next
+        private long nextPublish;
+
+        Handle(BatchedCounter counter, Thread owner) {
+            this.counter = counter;
+            this.owner = new WeakReference<>(owner);
+            this.nextPublish = counter.batchSize;
+        }
+
+        public void increment() {
+            add(1);
+        }
+
+        // delta >= 0: the published/count bookkeeping relies on count never going down
+        public void add(long delta) {
+            long c = count + delta;
+            COUNT.setOpaque(this, c);
+            if (c >= nextPublish) {
+                nextPublish = c + counter.batchSize;
+                publish();
+            }
+        }
+
+        // isAlive() returning false happens-after everything the thread did, like join()
+        boolean isOwnerGone() {
+            Thread thread = owner.get();
+            return thread == null || !thread.isAlive();
+        }
+
+        // Whoever wins the CAS adds exactly the range (published, c] to total, so nothing is counted twice.
+        // A loser retries while its c is still ahead, so the owner's batch isn't held back by a timer publish.
+        void publish() {
+            long c = (long) COUNT.getOpaque(this);
+            long p;
+            while (c > (p = published)) {
+                if (PUBLISHED.compareAndSet(this, p, c)) {
+                    counter.total.addAndGet(c - p);
+                    return;
+                }
+            }
+        }
+    }
+}
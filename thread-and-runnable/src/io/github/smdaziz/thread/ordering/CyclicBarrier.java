@@ -0,0 +1,47 @@
+package io.github.smdaziz.thread.ordering;
+
+class CyclicBarrier {
+    private final int totalThreads;
+    private int waitingThreads;
+    private int phase = 0;
+
+    public CyclicBarrier(int totalThreads) {
+        this.totalThreads = totalThreads;
+        this.waitingThreads = totalThreads;
+    }
+
+    public synchronized void waitForOthers() {
+        /*int currentPhase = phase;
+        waitingThreads--;
+        while (waitingThreads > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        notifyAll();
+        waitingThreads = totalThreads; // Reset for next phase
+        phase++;*/
+        // Note: The above code is commented out to avoid deadlock in this example.
+        // Wrong wait condition. waits on while (waitingThreads > 0).
+        // The last arriver sets waitingThreads = totalThreads and notifyAll().
+        // Woken threads recheck the loop → condition is true again → they go back to wait() → hang.
+
+        int currentPhase = phase;
+        waitingThreads--;
+        if (waitingThreads == 0) {
+            waitingThreads = totalThreads; // Reset for next phase
+            phase++;
+            notifyAll();
+            return;
+        }
+        while (currentPhase == phase) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package io.github.smdaziz.thread.ordering;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Goal: A reusable barrier whose parties can join and leave between phases.
+// CyclicBarrier (CyclicBarrierThread) is fixed at totalThreads, so thread4-6 can only run as a second batch after
+// joining the first. PhasedBarrier counts registered and unarrived parties per phase, like java.util.concurrent.Phaser:
+// register() joins, arrive() doesn't wait, arriveAndDeregister() leaves, awaitAdvance(phase) waits for a phase to end.
+// For many parties, barriers form a tree: a child counts its own parties on its own AtomicLong and takes part in
+// its parent as a single party, so only one arrival per child ever touches the root. Waiters still read the
+// phase from the root, but park on their own barrier's stack: the first waiter of a child waits at the parent on
+// behalf of the others and releases them once the phase has moved on, so the root's stack holds one waiter per
+// child with waiters, not one per thread.
+// 1) Workers joining and leaving while the main thread drives the phases.
+// 2) 128 workers on a flat barrier vs spread over 16 children, checking no phase starts early.
+public class PhasedBarrierThreads {
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        dynamicParties();
+        for (int round = 0; round < 3; round++) {
+            System.out.println("100 phases x 128 threads: flat " + timePhases(1) + " ms, 16 children " + timePhases(16) + " ms");
+        }
+        System.out.println("Main thread finished.");
+    }
+
+    private static void dynamicParties() {
+        PhasedBarrier barrier = new PhasedBarrier(1); // the main thread
+        Thread[] threads = new Thread[6];
+        for (int i = 0; i < threads.length; i++) {
+            int phases = i < 3 ? 2 : 3;
+            threads[i] = new Thread(() -> {
+                int phase = barrier.register();
+                System.out.println(Thread.currentThread().getName() + " joined in phase " + phase);
+                for (int j = 0; j < phases - 1; j++) {
+                    barrier.arriveAndAwaitAdvance();
+                }
+                System.out.println(Thread.currentThread().getName() + " leaves in phase " + barrier.arriveAndDeregister());
+            }, "Thread-" + (i + 1));
+        }
+        for (int i = 0; i < 3; i++) {
+            threads[i].start();
+        }
+        for (int phase = 0; phase < 6; phase++) {
+            sleep(100);
+            if (phase == 1) {
+                for (int i = 3; i < threads.length; i++) {
+                    threads[i].start(); // no need to wait for the first three to finish
+                }
+                sleep(100);
+            }
+            System.out.println("Main ends phase " + phase + " with " + barrier.getRegisteredParties() + " parties");
+            barrier.arriveAndAwaitAdvance();
+        }
+        System.out.println("Main leaves, barrier terminated: " + (barrier.arriveAndDeregister() >= 0 && barrier.isTerminated()));
+        join(threads);
+    }
+
+    private static long timePhases(int children) {
+        int threadCount = 128;
+        int phases = 100;
+        PhasedBarrier root = new PhasedBarrier();
+        PhasedBarrier[] leaves = new PhasedBarrier[children];
+        for (int i = 0; i < children; i++) {
+            leaves[i] = children == 1 ? root : new PhasedBarrier(root, 0);
+        }
+        for (int i = 0; i < threadCount; i++) {
+            leaves[i % children].register(); // before starting, so phase 0 waits for everybody
+        }
+        AtomicIntegerArray finished = new AtomicIntegerArray(phases);
+        AtomicInteger violations = new AtomicInteger();
+        Thread[] threads = new Thread[threadCount];
+        long start = System.nanoTime();
+        for (int i = 0; i < threadCount; i++) {
+            PhasedBarrier leaf = leaves[i % children];
+            threads[i] = new Thread(() -> {
+                for (int phase = 0; phase < phases; phase++) {
+                    if (phase > 0 && finished.get(phase - 1) != threadCount) {
+                        violations.incrementAndGet();
+                    }
+                    spin(ThreadLocalRandom.current().nextInt(1_000));
+                    finished.incrementAndGet(phase);
+                    if (phase < phases - 1) {
+                        leaf.arriveAndAwaitAdvance();
+                    } else {
+                        leaf.arriveAndDeregister();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        join(threads);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        if (violations.get() != 0 || !root.isTerminated()) {
+            System.out.println("Phase violations: " + violations.get() + ", terminated: " + root.isTerminated());
+        }
+        return elapsed;
+    }
+
+    private static void spin(int iterations) {
+        double x = 0;
+        for (int i = 0; i < iterations; i++) {
+            x += Math.sqrt(i);
+        }
+        if (x < 0) System.out.println(x); // keep the loop
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void join(Thread[] threads) {
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
+class PhasedBarrier {
+    public static final int MAX_PARTIES = 0xffff;
+    // state: phase (31 bits, negative once terminated) | registered parties (16 bits) | unarrived parties (16 bits)
+    private static final int PHASE_SHIFT = 32;
+    private static final int PARTIES_SHIFT = 16;
+    private static final long ONE_UNARRIVED = 1;
+    private static final long ONE_PARTY = 1L << PARTIES_SHIFT;
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1 << 8 : 0;
+
+    private final PhasedBarrier parent;
+    private final PhasedBarrier root;
+    private final AtomicLong state;
+    // Threads parked in awaitAdvance() on this barrier. The root's is drained by the thread that advances it,
+    // a child's by the waiter that found it empty, once that waiter sees the advance.
+    private final AtomicReference<Waiter> waiters = new AtomicReference<>();
+
+    public PhasedBarrier() {
+        this(null, 0);
+    }
+
+    public PhasedBarrier(int parties) {
+        this(null, parties);
+    }
+
+    // A child with parties > 0 registers with its parent right away, an empty one on its first register()
+    public PhasedBarrier(PhasedBarrier parent, int parties) {
+        if (parties < 0 || parties > MAX_PARTIES) {
+            throw new IllegalArgumentException("parties must be in 0.." + MAX_PARTIES);
+        }
+        this.parent = parent;
+        this.root = parent == null ? this : parent.root;
+        int phase = 0;
+        if (parent != null) {
+            phase = parties > 0 ? parent.register() : parent.getPhase();
+        }
+        this.state = new AtomicLong(pack(phase, parties, parties));
+    }
+
+    // Adds a party to the current phase and returns that phase, negative if terminated. If this child has
+    // already arrived at its parent for the current phase, the new party waits for the next one.
+    public int register() {
+        while (true) {
+            long s = reconcileState();
+            int phase = phaseOf(s);
+            if (phase < 0) {
+                return phase;
+            }
+            int parties = partiesOf(s);
+            if (parties == MAX_PARTIES) {
+                throw new IllegalStateException("More than " + MAX_PARTIES + " parties");
+            }
+            if (parties == 0 && parent != null) {
+                // An empty child isn't a party of its parent. The monitor only serializes this rare
+                // transition, so two first registrations don't both join the parent.
+                synchronized (this) {
+                    if (partiesOf(state.get()) == 0) {
+                        int parentPhase = parent.register();
+                        if (parentPhase < 0) {
+                            return parentPhase;
+                        }
+                        state.set(pack(parentPhase, 1, 1)); // no arrivals with 0 parties, only reconcileState() races
+                        return parentPhase;
+                    }
+                }
+                continue;
+            }
+            if (parties > 0 && unarrivedOf(s) == 0) {
+                awaitAdvance(phase);
+                continue;
+            }
+            if (state.compareAndSet(s, s + ONE_PARTY + ONE_UNARRIVED)) {
+                return phase;
+            }
+        }
+    }
+
+    // Arrives without waiting, returns the phase arrived at
+    public int arrive() {
+        return doArrive(false);
+    }
+
+    // Arrives and leaves: later phases won't wait for this party. The root terminates once no parties are left.
+    public int arriveAndDeregister() {
+        return doArrive(true);
+    }
+
+    // Returns the next phase once every party has arrived at this one
+    public int arriveAndAwaitAdvance() {
+        int phase = arrive();
+        return phase < 0 ? phase : awaitAdvance(phase);
+    }
+
+    // Waits while the barrier is at the given phase, returns the phase it moved on to (at once if it already has).
+    // Uninterruptible like CyclicBarrier.waitForOthers(), the interrupt status is restored on return.
+    public int awaitAdvance(int phase) {
+        PhasedBarrier r = root;
+        int current = phaseOf(r.state.get());
+        if (phase < 0 || current != phase) {
+            return current;
+        }
+        for (int i = 0; i < SPINS; i++) {
+            if ((current = phaseOf(r.state.get())) != phase) {
+                return current;
+            }
+            Thread.onSpinWait();
+        }
+        // Finding a child's stack empty makes us its representative: we queue at the parent too, and so on up,
+        // and release the child's stack on the way out. Re-checked after pushing, so an advance that drained
+        // first isn't missed; such a stale waiter is unparked harmlessly later. A wake-up with the phase
+        // unchanged may come from a stale drain that took our node, so each park follows a fresh push.
+        PhasedBarrier top = this; // where we are queued; we represent every barrier below it
+        boolean queued = false;
+        boolean wasInterrupted = false;
+        while ((current = phaseOf(r.state.get())) == phase) {
+            if (!queued) {
+                while (top.push(Thread.currentThread()) && top.parent != null) {
+                    top = top.parent;
+                }
+                queued = true;
+                continue;
+            }
+            LockSupport.park(this);
+            queued = false;
+            if (Thread.interrupted()) {
+                wasInterrupted = true; // keep waiting, preserve status
+            }
+        }
+        for (PhasedBarrier b = this; b != top; b = b.parent) {
+            b.releaseWaiters();
+        }
+        if (wasInterrupted) Thread.currentThread().interrupt();
+        return current;
+    }
+
+    public int getPhase() {
+        return phaseOf(root.state.get());
+    }
+
+    public int getRegisteredParties() {
+        return partiesOf(reconcileState());
+    }
+
+    public int getUnarrivedParties() {
+        return unarrivedOf(reconcileState());
+    }
+
+    public boolean isTerminated() {
+        return root.state.get() < 0;
+    }
+
+    private int doArrive(boolean deregister) {
+        while (true) {
+            long s = reconcileState();
+            int phase = phaseOf(s);
+            if (phase < 0) {
+                return phase;
+            }
+            int unarrived = unarrivedOf(s);
+            if (unarrived == 0) {
+                throw new IllegalStateException("Arrival of an unregistered party in phase " + phase);
+            }
+            long next = s - ONE_UNARRIVED - (deregister ? ONE_PARTY : 0);
+            int nextParties = partiesOf(next);
+            boolean last = unarrived == 1;
+            if (last && parent == null) {
+                // Advance in the same CAS, so the root is never seen with all parties arrived
+                next = nextParties == 0
+                        ? pack(phase | Integer.MIN_VALUE, 0, 0)
+                        : pack((phase + 1) & Integer.MAX_VALUE, nextParties, nextParties);
+            }
+            if (!state.compareAndSet(s, next)) {
+                continue;
+            }
+            if (last) {
+                if (parent == null) {
+                    releaseWaiters();
+                } else {
+                    // This child is done with the phase: one arrival at the parent for all its parties.
+                    // It stays at unarrived 0 until reconcileState() sees the root move on.
+                    parent.doArrive(nextParties == 0);
+                }
+            }
+            return phase;
+        }
+    }
+
+    // A child only learns about an advance from the root: once the root's phase differs, every party of
+    // the child is unarrived again (or, if terminated, the child is terminated too)
+    private long reconcileState() {
+        if (root == this) {
+            return state.get();
+        }
+        while (true) {
+            long s = state.get();
+            int rootPhase = phaseOf(root.state.get());
+            if (phaseOf(s) == rootPhase) {
+                return s;
+            }
+            int parties = partiesOf(s);
+            long next = rootPhase < 0 ? pack(rootPhase, parties, unarrivedOf(s)) : pack(rootPhase, parties, parties);
+            if (state.compareAndSet(s, next)) {
+                return next;
+            }
+        }
+    }
+
+    // Returns true if the stack was empty: until it is drained, everything pushed after us relies on us
+    private boolean push(Thread thread) {
+        Waiter waiter = new Waiter(thread);
+        Waiter head;
+        do {
+            head = waiters.get();
+            waiter.next = head;
+        } while (!waiters.compareAndSet(head, waiter));
+        return head == null;
+    }
+
+    private void releaseWaiters() {
+        for (Waiter w = waiters.getAndSet(null); w != null; w = w.next) {
+            LockSupport.unpark(w.thread);
+        }
+    }
+
+    private static long pack(int phase, int parties, int unarrived) {
+        return ((long) phase << PHASE_SHIFT) | ((long) parties << PARTIES_SHIFT) | unarrived;
+    }
+
+    private static int phaseOf(long s) {
+        return (int) (s >> PHASE_SHIFT);
+    }
+
+    private static int partiesOf(long s) {
+        return (int) (s >>> PARTIES_SHIFT) & MAX_PARTIES;
+    }
+
+    private static int unarrivedOf(long s) {
+        return (int) s & MAX_PARTIES;
+    }
+
+    static final class Waiter {
+        final Thread thread;
+        // Written before the push CAS publishes the node
+        Waiter next;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+}
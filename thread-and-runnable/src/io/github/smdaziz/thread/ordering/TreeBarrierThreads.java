@@ -0,0 +1,234 @@
+package io.github.smdaziz.thread.ordering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+// Goal: A reusable barrier for many threads without one monitor and one notifyAll per phase.
+// CyclicBarrier (CyclicBarrierThread) makes every arrival take the same lock, and the last one wakes the whole
+// wait set, which then queues up for that lock again. TreeBarrier spreads arrivals over a fan-in tree:
+// threads count down on their leaf, the last at each node climbs to the parent, and the last at the root
+// turns back and releases the nodes on its way down, each releasing its own waiters.
+// Every node flips a sense flag instead of resetting a phase counter, so the barrier can be reused at once.
+public class TreeBarrierThreads {
+    private static final int THREADS = 64;
+
+    public static void main(String[] args) {
+        System.out.println("Main thread started.");
+        checkPhases();
+        for (int round = 0; round < 3; round++) {
+            System.out.println("200 phases x " + THREADS + " threads: CyclicBarrier " + timeCyclicBarrier(200)
+                    + " ms, TreeBarrier " + timeTreeBarrier(200) + " ms");
+        }
+        System.out.println("Main thread finished.");
+    }
+
+    // No thread may start phase p + 1 before every thread has finished phase p
+    private static void checkPhases() {
+        int phases = 20;
+        TreeBarrier barrier = new TreeBarrier(THREADS, 4);
+        AtomicIntegerArray finished = new AtomicIntegerArray(phases);
+        AtomicInteger violations = new AtomicInteger();
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                for (int phase = 0; phase < phases; phase++) {
+                    if (phase > 0 && finished.get(phase - 1) != THREADS) {
+                        violations.incrementAndGet();
+                    }
+                    spin(ThreadLocalRandom.current().nextInt(10_000)); // uneven work
+                    finished.incrementAndGet(phase);
+                    if (barrier.await()) {
+                        System.out.println(Thread.currentThread().getName() + " completed phase " + phase);
+                    }
+                }
+            }, "TreeBarrier-" + (i + 1));
+            threads[i].start();
+        }
+        joinAll(threads);
+        System.out.println("Phase violations: " + violations.get());
+    }
+
+    private static long timeTreeBarrier(int phases) {
+        TreeBarrier barrier = new TreeBarrier(THREADS, 4);
+        return time(phases, barrier::await);
+    }
+
+    private static long timeCyclicBarrier(int phases) {
+        CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        return time(phases, barrier::waitForOthers);
+    }
+
+    private static long time(int phases, Runnable await) {
+        Thread[] threads = new Thread[THREADS];
+        long start = System.nanoTime();
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                for (int phase = 0; phase < phases; phase++) {
+                    spin(1_000);
+                    await.run();
+                }
+            });
+            threads[i].start();
+        }
+        joinAll(threads);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void spin(int iterations) {
+        double x = 0;
+        for (int i = 0; i < iterations; i++) {
+            x += Math.sqrt(i);
+        }
+        if (x < 0) System.out.println(x); // keep the loop
+    }
+
+    private static void joinAll(Thread[] threads) {
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
+class TreeBarrier {
+    // Spinning only helps when the releasing thread can run at the same time
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1 << 10 : 0;
+
+    private final int parties;
+    private final Node[] leaves;
+    private final int fanIn;
+    private final AtomicInteger joined = new AtomicInteger();
+    // Each thread's leaf and its sense for the next phase, assigned on its first await()
+    private final ThreadLocal<Participant> participant = new ThreadLocal<>();
+
+    public TreeBarrier(int parties, int fanIn) {
+        if (parties < 1 || fanIn < 2) {
+            throw new IllegalArgumentException("parties must be >= 1 and fanIn >= 2");
+        }
+        this.parties = parties;
+        this.fanIn = fanIn;
+        List<Node> level = new ArrayList<>();
+        for (int first = 0; first < parties; first += fanIn) {
+            level.add(new Node(Math.min(fanIn, parties - first)));
+        }
+        this.leaves = level.toArray(new Node[0]);
+        while (level.size() > 1) {
+            List<Node> parents = new ArrayList<>();
+            for (int first = 0; first < level.size(); first += fanIn) {
+                int children = Math.min(fanIn, level.size() - first);
+                Node parent = new Node(children);
+                for (int i = first; i < first + children; i++) {
+                    level.get(i).parent = parent;
+                }
+                parents.add(parent);
+            }
+            level = parents;
+        }
+    }
+
+    // Waits until all parties have arrived. Returns true in exactly one thread per phase, the last to arrive.
+    // Uninterruptible like CyclicBarrier.waitForOthers(), the interrupt status is restored on return.
+    // The same `parties` threads must call it every phase.
+    public boolean await() {
+        Participant p = participant.get();
+        if (p == null) {
+            int index = joined.getAndIncrement();
+            if (index >= parties) {
+                throw new IllegalStateException("More than " + parties + " threads are using this barrier");
+            }
+            p = new Participant(leaves[index / fanIn]);
+            participant.set(p);
+        }
+        boolean sense = p.sense;
+        p.sense = !sense;
+        return p.leaf.await(sense);
+    }
+
+    static final class Node {
+        final int size;
+        final AtomicInteger count;
+        Node parent;
+        // Equals the sense of the phase most recently released at this node
+        volatile boolean sense = false;
+        // Threads parked at this node, swapped out by the release
+        final AtomicReference<Waiter> waiters = new AtomicReference<>();
+
+        Node(int size) {
+            this.size = size;
+            this.count = new AtomicInteger(size);
+        }
+
+        boolean await(boolean phaseSense) {
+            if (count.decrementAndGet() == 0) {
+                // Last here: combine upwards, then release this node on the way back down. The count is
+                // reset before the flag flips, so a released thread can already arrive for the next phase.
+                boolean last = parent == null || parent.await(phaseSense);
+                count.set(size);
+                sense = phaseSense;
+                releaseWaiters();
+                return last;
+            }
+            awaitRelease(phaseSense);
+            return false;
+        }
+
+        // Spin briefly, then park. The sense is re-checked after pushing, so a release that swapped the stack
+        // before the push is never missed; such a stale node is unparked harmlessly by the next release.
+        private void awaitRelease(boolean phaseSense) {
+            for (int i = 0; i < SPINS; i++) {
+                if (sense == phaseSense) {
+                    return;
+                }
+                Thread.onSpinWait();
+            }
+            Waiter waiter = new Waiter(Thread.currentThread());
+            Waiter head;
+            do {
+                head = waiters.get();
+                waiter.next = head;
+            } while (!waiters.compareAndSet(head, waiter));
+            boolean wasInterrupted = false;
+            while (sense != phaseSense) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    wasInterrupted = true; // keep waiting, preserve status
+                }
+            }
+            if (wasInterrupted) Thread.currentThread().interrupt();
+        }
+
+        private void releaseWaiters() {
+            for (Waiter w = waiters.getAndSet(null); w != null; w = w.next) {
+                LockSupport.unpark(w.thread);
+            }
+        }
+    }
+
+    static final class Waiter {
+        final Thread thread;
+        // Written before the push CAS publishes the node
+        Waiter next;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    static final class Participant {
+        final Node leaf;
+        // Only its own thread reads and writes it
+        boolean sense = true;
+
+        Participant(Node leaf) {
+            this.leaf = leaf;
+        }
+    }
+}